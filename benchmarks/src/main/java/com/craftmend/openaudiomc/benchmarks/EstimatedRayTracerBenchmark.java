@@ -0,0 +1,59 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.Populations;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.Vector3;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.EstimatedRayTracer;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obstruction estimates between a listener and a speaker, through a world with a wall every eight blocks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EstimatedRayTracerBenchmark {
+
+    private static final int RAYS = 1024;
+
+    // speaker radius, so the longest ray a speaker would need
+    @Param({"8", "32", "64"})
+    public int distance;
+
+    private final EstimatedRayTracer rayTracer = new EstimatedRayTracer();
+    private Location[] starts;
+    private Vector3[] ends;
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment();
+        starts = Populations.probes(environment, RAYS, 1024);
+        ends = new Vector3[RAYS];
+
+        Random random = new Random(distance);
+        for (int i = 0; i < RAYS; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            ends[i] = new Vector3(
+                    starts[i].getX() + Math.cos(angle) * distance,
+                    starts[i].getY() + random.nextDouble() * 4,
+                    starts[i].getZ() + Math.sin(angle) * distance
+            );
+        }
+    }
+
+    @Benchmark
+    public int obstructionsBetweenLocations() {
+        int ray = cursor;
+        cursor = (cursor + 1) % RAYS;
+        return rayTracer.obstructionsBetweenLocations(starts[ray], ends[ray]);
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.ReflectivePacketAdapter;
+import com.craftmend.openaudiomc.generic.media.objects.Media;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.addapter.AbstractPacketAdapter;
+import com.craftmend.openaudiomc.generic.networking.enums.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientCreateMedia;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientRtcLocationUpdate;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientCreateSpeaker;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientRemoveSpeaker;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateLocation;
+import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientUpdateVoiceLocations;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.ClientSpeaker;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.Vector3;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.in.ClientChangedVolumePayload;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionMedia;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.SpeakerMedia;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packets going through gson the way the socket sends and receives them, with the old reflective payload adapter
+ * and the one that uses the payload registry. The setup fails if the hand written payload writers don't
+ * produce the exact same json as the reflective adapter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacketSerializationBenchmark {
+
+    @Param({"reflective", "registry"})
+    public String adapter;
+
+    private Gson gson;
+    private AbstractPacket createMedia;
+    private AbstractPacket location;
+    private String incomingVolume;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // media needs the core for its source and start time
+        new BenchmarkEnvironment();
+
+        GsonBuilder builder = new GsonBuilder();
+        if (adapter.equals("reflective")) {
+            builder.registerTypeAdapter(AbstractPacketPayload.class, new ReflectivePacketAdapter());
+        } else {
+            builder.registerTypeAdapterFactory(new AbstractPacketAdapter());
+        }
+        gson = builder.create();
+        verifyPayloadWriters();
+
+        UUID client = UUID.randomUUID();
+        createMedia = new PacketClientCreateMedia(new Media("https://example.com/music.mp3"));
+        createMedia.setClient(client);
+        location = new PacketClientUpdateLocation(new ClientPlayerLocationPayload(12.3, 64, -104.5, 12, 270));
+        location.setClient(client);
+
+        // the relay names incoming payloads by their name within the payload package
+        AbstractPacket volume = new AbstractPacket(new ClientChangedVolumePayload(80, client), PacketChannel.SOCKET_IN_CLIENT_CHANGED_VOLUME, null);
+        incomingVolume = gson.toJson(volume).replace(ClientChangedVolumePayload.class.getName(), "in.ClientChangedVolumePayload");
+    }
+
+    private void verifyPayloadWriters() {
+        Gson reflective = new GsonBuilder().registerTypeAdapter(AbstractPacketPayload.class, new ReflectivePacketAdapter()).create();
+        Gson registry = new GsonBuilder().registerTypeAdapterFactory(new AbstractPacketAdapter()).create();
+
+        SpeakerMedia speakerMedia = new SpeakerMedia("https://example.com/speaker.mp3");
+        speakerMedia.setDistanceFading(true);
+        ClientSpeaker speaker = new ClientSpeaker(new Vector3(10.5, 64, -3), SpeakerType.SPEAKER_3D, UUID.randomUUID().toString(), "https://example.com/speaker.mp3", 12, 1000, 2);
+
+        List<AbstractPacket> packets = Arrays.asList(
+                new PacketClientCreateMedia(new Media("https://example.com/music.mp3")),
+                new PacketClientCreateMedia(new RegionMedia("https://example.com/region.mp3", 80, 500)),
+                new PacketClientCreateMedia(speakerMedia),
+                new PacketClientCreateSpeaker(new ClientSpeakerCreatePayload(speaker)),
+                new PacketClientRemoveSpeaker(new ClientSpeakerDestroyPayload(speaker)),
+                new PacketClientUpdateLocation(new ClientPlayerLocationPayload(12.3, 64, -104.5, 12, 270)),
+                new PacketClientUpdateVoiceLocations(new ClientVoiceUpdatePeerLocationsPayload(
+                        new HashSet<>(Collections.singletonList(new ClientRtcLocationUpdate("stream", 1.5, 70, -8)))
+                ))
+        );
+
+        for (AbstractPacket packet : packets) {
+            String expected = reflective.toJson(packet);
+            String written = registry.toJson(packet);
+            if (!expected.equals(written)) {
+                throw new IllegalStateException("The payload writer for " + packet.getData().getClass().getSimpleName()
+                        + " doesn't match gson, expected " + expected + " but got " + written);
+            }
+        }
+    }
+
+    @Benchmark
+    public String serializeCreateMedia() {
+        return gson.toJson(createMedia);
+    }
+
+    @Benchmark
+    public String serializeLocation() {
+        return gson.toJson(location);
+    }
+
+    @Benchmark
+    public AbstractPacket deserializeIncoming() {
+        return gson.fromJson(incomingVolume, AbstractPacket.class);
+    }
+
+}
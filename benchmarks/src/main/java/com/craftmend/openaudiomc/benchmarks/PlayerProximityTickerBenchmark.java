@@ -0,0 +1,62 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.Populations;
+import com.craftmend.openaudiomc.benchmarks.environment.StubPlayer;
+import com.craftmend.openaudiomc.spigot.modules.voicechat.tasks.PlayerProximityTicker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single run of the voice chat proximity task, with every player connected to voice chat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerProximityTickerBenchmark {
+
+    private static final double STEP = 0.45;
+    private static final int PLAYER_SPACING = 16;
+
+    @Param({"10", "100", "1000"})
+    public int players;
+
+    @Param({"32"})
+    public int range;
+
+    // standing still keeps the same peers, walking makes players link and drop
+    @Param({"false", "true"})
+    public boolean walking;
+
+    private BenchmarkEnvironment environment;
+    private List<StubPlayer> stubPlayers;
+    private PlayerProximityTicker ticker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        environment = new BenchmarkEnvironment();
+        stubPlayers = Populations.spawnPlayers(environment, players, Populations.sideFor(players, PLAYER_SPACING));
+        ticker = new PlayerProximityTicker(range);
+
+        // link everyone that's already in range
+        environment.captureSnapshot();
+        ticker.run();
+    }
+
+    @Benchmark
+    public long run() {
+        if (walking) {
+            for (StubPlayer player : stubPlayers) player.walk(STEP);
+        }
+
+        environment.captureSnapshot();
+        ticker.run();
+        return environment.getNetworkingService().getSentPackets();
+    }
+
+}
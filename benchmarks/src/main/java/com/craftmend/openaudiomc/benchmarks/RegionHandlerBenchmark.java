@@ -0,0 +1,71 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.GridRegionAdapter;
+import com.craftmend.openaudiomc.benchmarks.environment.Populations;
+import com.craftmend.openaudiomc.benchmarks.environment.StubPlayer;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One region tick for every connected player. Regions come from a grid instead of WorldGuard,
+ * so this measures the plugin side of the region lookup and the media diffing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionHandlerBenchmark {
+
+    private static final double STEP = 0.45;
+    private static final int PLAYER_SPACING = 16;
+
+    @Param({"10", "100", "1000"})
+    public int players;
+
+    // size of the smallest regions, every four by four of them are also covered by a bigger one
+    @Param({"32"})
+    public int regionSize;
+
+    @Param({"false", "true"})
+    public boolean walking;
+
+    private List<StubPlayer> stubPlayers;
+    private List<SpigotConnection> connections;
+    private BenchmarkEnvironment environment;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        environment = new BenchmarkEnvironment();
+        environment.enableRegions(regionModule -> new GridRegionAdapter(regionModule, regionSize));
+
+        int side = Populations.sideFor(players, PLAYER_SPACING);
+        ((GridRegionAdapter) environment.getRegionModule().getRegionAdapter()).registerAll(environment, side);
+        stubPlayers = Populations.spawnPlayers(environment, players, side);
+        connections = new ArrayList<>(environment.getConnections());
+
+        environment.captureSnapshot();
+        for (SpigotConnection connection : connections) connection.getRegionHandler().tick();
+    }
+
+    @Benchmark
+    public long tickAll() {
+        if (walking) {
+            for (StubPlayer player : stubPlayers) player.walk(STEP);
+        }
+
+        environment.captureSnapshot();
+        for (SpigotConnection connection : connections) {
+            connection.getRegionHandler().tick();
+        }
+
+        return environment.getNetworkingService().getSentPackets();
+    }
+
+}
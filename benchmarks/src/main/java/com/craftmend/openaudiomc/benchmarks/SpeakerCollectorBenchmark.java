@@ -0,0 +1,70 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.Populations;
+import com.craftmend.openaudiomc.benchmarks.environment.StubConfiguration;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerCollector;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the speakers that can be heard from a location, what every speaker tick starts with
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpeakerCollectorBenchmark {
+
+    private static final int PROBES = 4096;
+
+    @Param({"1000", "10000", "100000"})
+    public int speakers;
+
+    // 12 is a spread out map, with 2 every location hears well over 50 speakers
+    @Param({"12", "2"})
+    public int spacing;
+
+    @Param({"0", "16"})
+    public int clusterDistance;
+
+    private SpeakerCollector collector;
+    private Location[] probes;
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StubConfiguration configuration = new StubConfiguration();
+        configuration.set(StorageKey.SETTINGS_SPEAKER_CLUSTER_DISTANCE, clusterDistance);
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(configuration);
+
+        int side = Populations.placeSpeakers(environment, speakers, spacing);
+        probes = Populations.probes(environment, PROBES, side);
+        collector = environment.getSpeakerModule().getCollector();
+    }
+
+    @Benchmark
+    public Collection<ApplicableSpeaker> getApplicableSpeakers() {
+        return collector.getApplicableSpeakers(nextProbe());
+    }
+
+    @Benchmark
+    public void forEachApplicableSpeaker(Blackhole blackhole) {
+        collector.forEachApplicableSpeaker(nextProbe(), blackhole::consume);
+    }
+
+    private Location nextProbe() {
+        Location probe = probes[cursor];
+        cursor = (cursor + 1) % PROBES;
+        return probe;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.craftmend.openaudiomc.benchmarks;
+
+import com.craftmend.openaudiomc.benchmarks.environment.BenchmarkEnvironment;
+import com.craftmend.openaudiomc.benchmarks.environment.LegacySpeakerHandler;
+import com.craftmend.openaudiomc.benchmarks.environment.Populations;
+import com.craftmend.openaudiomc.benchmarks.environment.StubPlayer;
+import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One speaker tick for every connected player, like the location watchers do every two ticks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpeakerHandlerBenchmark {
+
+    // how far players walk between two ticks, walking speed over two server ticks
+    private static final double STEP = 0.45;
+
+    @Param({"1000", "10000", "100000"})
+    public int speakers;
+
+    @Param({"10", "100", "1000"})
+    public int players;
+
+    // 12 is a spread out map, with 2 every player hears well over 50 speakers
+    @Param({"12", "2"})
+    public int spacing;
+
+    // standing still only checks if anything changed, walking makes speakers come and go
+    @Param({"false", "true"})
+    public boolean walking;
+
+    // the handler from before speakers were diffed by id, or the current one
+    @Param({"legacy", "current"})
+    public String handler;
+
+    private BenchmarkEnvironment environment;
+    private List<StubPlayer> stubPlayers;
+    private List<ITickableHandler> handlers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        environment = new BenchmarkEnvironment();
+        int side = Populations.placeSpeakers(environment, speakers, spacing);
+        stubPlayers = Populations.spawnPlayers(environment, players, side);
+        handlers = new ArrayList<>();
+        for (SpigotConnection connection : environment.getConnections()) {
+            handlers.add(handler.equals("legacy")
+                    ? new LegacySpeakerHandler(connection.getPlayer(), connection)
+                    : connection.getSpeakerHandler());
+        }
+
+        // get everyone their initial speakers, so standing still starts out settled
+        environment.captureSnapshot();
+        for (ITickableHandler speakerHandler : handlers) speakerHandler.tick();
+    }
+
+    @Benchmark
+    public long tickAll() {
+        if (walking) {
+            for (StubPlayer player : stubPlayers) player.walk(STEP);
+        }
+
+        environment.captureSnapshot();
+        for (ITickableHandler speakerHandler : handlers) {
+            speakerHandler.tick();
+        }
+
+        return environment.getNetworkingService().getSentPackets();
+    }
+
+}
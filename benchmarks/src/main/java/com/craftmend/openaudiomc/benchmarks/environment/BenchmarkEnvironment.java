@@ -0,0 +1,209 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.media.MediaModule;
+import com.craftmend.openaudiomc.generic.media.time.TimeService;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientRtcManager;
+import com.craftmend.openaudiomc.generic.platform.Platform;
+import com.craftmend.openaudiomc.generic.player.SpigotPlayerAdapter;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.PlayerModule;
+import com.craftmend.openaudiomc.spigot.modules.players.handlers.RegionHandler;
+import com.craftmend.openaudiomc.spigot.modules.players.handlers.SpeakerHandler;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerSnapshot;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerTickScheduler;
+import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import com.craftmend.openaudiomc.spigot.modules.regions.cache.AudioRegionCache;
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerCollector;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import com.craftmend.openaudiomc.spigot.modules.speakers.index.SpeakerIndex;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.ObstructionCache;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.VoxelRayTracer;
+import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Fakes just enough of a running server and plugin for the spatial hot paths to work.
+ *
+ * The core, the spigot plugin and the modules are created without their constructors (which would start
+ * networking, read files and register listeners), and get the fields that the benchmarked code uses set by hand.
+ * Creating a new environment replaces the singletons of the previous one.
+ */
+public class BenchmarkEnvironment {
+
+    // bukkit only accepts a server once, so it asks whatever environment is the latest
+    private static volatile BenchmarkEnvironment current;
+
+    private final StubConfiguration configuration;
+    private final StubNetworkingService networkingService = new StubNetworkingService();
+    private final World world = Stubs.world("world", Terrain.WALLED_GRID);
+    private final OpenAudioMcSpigot plugin;
+    private final SpeakerModule speakerModule;
+    private final PlayerModule playerModule;
+    private final PlayerTickScheduler tickScheduler;
+    private final Map<UUID, SpigotConnection> connectionMap = new HashMap<>();
+    private final List<StubPlayer> players = new ArrayList<>();
+    private final List<Player> onlinePlayers = new ArrayList<>();
+    private RegionModule regionModule;
+
+    public BenchmarkEnvironment() {
+        this(new StubConfiguration());
+    }
+
+    /**
+     * @param configuration settings, read by the modules while the environment is being created
+     */
+    public BenchmarkEnvironment(StubConfiguration configuration) {
+        this.configuration = configuration;
+        current = this;
+        if (Bukkit.getServer() == null) Bukkit.setServer(Stubs.server(() -> current.onlinePlayers));
+
+        OpenAudioMc core = Reflection.allocate(OpenAudioMc.class);
+        Reflection.set(core, "configuration", configuration);
+        Reflection.set(core, "networkingService", networkingService);
+        Reflection.set(core, "mediaModule", new MediaModule());
+        Reflection.set(core, "timeService", new TimeService());
+        Reflection.set(core, "platform", Platform.SPIGOT);
+        Reflection.setStatic(OpenAudioMc.class, "instance", core);
+
+        plugin = Reflection.allocate(OpenAudioMcSpigot.class);
+        Reflection.setStatic(OpenAudioMcSpigot.class, "instance", plugin);
+
+        // no tasks or workers, the benchmarks capture snapshots and tick players themselves
+        tickScheduler = Reflection.allocate(PlayerTickScheduler.class);
+        Reflection.set(tickScheduler, "connections", new SpigotConnection[0]);
+        Reflection.set(tickScheduler, "snapshot", PlayerSnapshot.EMPTY);
+        Reflection.set(tickScheduler, "captureBuffer", new Location(null, 0, 0, 0));
+        PlayerTickScheduler.Shard shard = Reflection.allocate(PlayerTickScheduler.Shard.class);
+        Reflection.set(shard, "busy", new AtomicBoolean(false));
+        Reflection.set(shard, "maxTickNanos", new AtomicLong());
+        Reflection.set(shard, "skippedPeriods", new AtomicLong());
+        Reflection.set(shard, "connections", new SpigotConnection[0]);
+        Reflection.set(tickScheduler, "shards", Collections.singletonList(shard));
+
+        playerModule = Reflection.allocate(PlayerModule.class);
+        Reflection.set(playerModule, "spigotConnectionMap", connectionMap);
+        Reflection.set(playerModule, "tickScheduler", tickScheduler);
+        Reflection.set(plugin, "playerModule", playerModule);
+
+        speakerModule = Reflection.allocate(SpeakerModule.class);
+        Reflection.set(speakerModule, "speakerMap", new HashMap<>());
+        Reflection.set(speakerModule, "chunkSpeakerMap", new HashMap<>());
+        Reflection.set(speakerModule, "speakerIndex", new SpeakerIndex());
+        Reflection.set(speakerModule, "speakerMediaMap", new HashMap<>());
+        Reflection.set(speakerModule, "waitingWorlds", new HashMap<>());
+        Reflection.set(speakerModule, "voxelRayTracer", new VoxelRayTracer());
+        Reflection.set(speakerModule, "obstructionCache", new ObstructionCache());
+        Reflection.set(speakerModule, "version", ServerVersion.MODERN);
+        Reflection.set(speakerModule, "collector", new SpeakerCollector(speakerModule));
+        Reflection.set(plugin, "speakerModule", speakerModule);
+    }
+
+    /**
+     * Enable regions, needs to happen before players get connected for them to get a region handler
+     *
+     * @param adapter creates the adapter that tells which regions are at a location
+     */
+    public void enableRegions(Function<RegionModule, AbstractRegionAdapter> adapter) {
+        regionModule = Reflection.allocate(RegionModule.class);
+        Reflection.set(regionModule, "regionPropertiesMap", new HashMap<>());
+        Reflection.set(regionModule, "regionMediaMap", new HashMap<>());
+        Reflection.set(regionModule, "regionCache", new AudioRegionCache());
+        Reflection.set(regionModule, "regionAdapter", adapter.apply(regionModule));
+        Reflection.set(plugin, "regionModule", regionModule);
+    }
+
+    public void registerRegion(String id, String source) {
+        regionModule.registerRegion(id, new RegionProperties(source, 100, 1000));
+    }
+
+    /**
+     * Make a player join, and connect them to the web client and voice chat
+     *
+     * @param player the player
+     * @return their connection
+     */
+    public SpigotConnection connect(StubPlayer player) {
+        ClientConnection client = Reflection.allocate(ClientConnection.class);
+        Reflection.set(client, "player", new SpigotPlayerAdapter(player.getPlayer()));
+        Reflection.set(client, "ongoingMedia", new ArrayList<>());
+        Reflection.set(client, "thirdPartyValues", new HashMap<>());
+        Reflection.set(client, "connectHandlers", new ArrayList<>());
+        Reflection.set(client, "disconnectHandlers", new ArrayList<>());
+        Reflection.set(client, "volume", -1);
+        Reflection.set(client, "streamKey", player.getName() + "-stream");
+        Reflection.set(client, "isConnected", true);
+        Reflection.set(client, "isConnectedToRtc", true);
+
+        ClientRtcManager rtcManager = Reflection.allocate(ClientRtcManager.class);
+        Reflection.set(rtcManager, "clientConnection", client);
+        Reflection.set(rtcManager, "subscriptions", new HashSet<>());
+        Reflection.set(rtcManager, "locationUpdateQueue", ConcurrentHashMap.newKeySet());
+        Reflection.set(client, "clientRtcManager", rtcManager);
+
+        SpigotConnection connection = Reflection.allocate(SpigotConnection.class);
+        Reflection.set(connection, "clientConnection", client);
+        Reflection.set(connection, "player", player.getPlayer());
+        Reflection.set(connection, "currentRegions", new HashMap<>());
+        Reflection.set(connection, "locationFollowers", new HashSet<>());
+        Reflection.set(connection, "snapshotSlot", -1);
+        Reflection.set(connection, "speakerHandler", new SpeakerHandler(player.getPlayer(), connection));
+        if (regionModule != null) Reflection.set(connection, "regionHandler", new RegionHandler(player.getPlayer(), connection));
+
+        networkingService.addClient(client);
+        connectionMap.put(player.getUniqueId(), connection);
+        tickScheduler.add(connection);
+        players.add(player);
+        onlinePlayers.add(player.getPlayer());
+        return connection;
+    }
+
+    /**
+     * Capture where all players are, like the main thread does every tick. Handlers only see players move after this.
+     */
+    public void captureSnapshot() {
+        tickScheduler.captureSnapshot();
+    }
+
+    public StubConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public StubNetworkingService getNetworkingService() {
+        return networkingService;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public SpeakerModule getSpeakerModule() {
+        return speakerModule;
+    }
+
+    public RegionModule getRegionModule() {
+        return regionModule;
+    }
+
+    public Collection<SpigotConnection> getConnections() {
+        return connectionMap.values();
+    }
+
+    public List<StubPlayer> getPlayers() {
+        return players;
+    }
+
+}
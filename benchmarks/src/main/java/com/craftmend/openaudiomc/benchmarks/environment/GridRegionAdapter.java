@@ -0,0 +1,93 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.ApiRegion;
+import org.bukkit.Location;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Region adapter without WorldGuard. The world is divided in square cells that all have a region,
+ * and every four by four cells are covered by another region. So every location is in two overlapping regions.
+ */
+public class GridRegionAdapter extends AbstractRegionAdapter {
+
+    private static final int CELLS_PER_AREA = 4;
+
+    private final int cellSize;
+
+    public GridRegionAdapter(RegionModule regionModule, int cellSize) {
+        super(regionModule);
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public Set<ApiRegion> getRegionsAtLocation(Location location) {
+        int cellX = Math.floorDiv(location.getBlockX(), cellSize);
+        int cellZ = Math.floorDiv(location.getBlockZ(), cellSize);
+
+        // a new set every time, like worldguard does
+        Set<ApiRegion> regions = new HashSet<>();
+        regions.add(new GridRegion(cellRegion(cellX, cellZ)));
+        regions.add(new GridRegion(areaRegion(Math.floorDiv(cellX, CELLS_PER_AREA), Math.floorDiv(cellZ, CELLS_PER_AREA))));
+        return regions;
+    }
+
+    @Override
+    public boolean doesRegionExist(String name) {
+        return true;
+    }
+
+    /**
+     * Register audio for all regions that overlap with an area
+     *
+     * @param environment the environment, with regions enabled
+     * @param side side of the area, starting at 0,0
+     */
+    public void registerAll(BenchmarkEnvironment environment, int side) {
+        int cells = Math.floorDiv(side, cellSize) + 1;
+        for (int x = 0; x < cells; x++) {
+            for (int z = 0; z < cells; z++) {
+                environment.registerRegion(cellRegion(x, z), "https://example.com/cell-" + x + "-" + z + ".mp3");
+            }
+        }
+
+        int areas = Math.floorDiv(cells, CELLS_PER_AREA) + 1;
+        for (int x = 0; x < areas; x++) {
+            for (int z = 0; z < areas; z++) {
+                environment.registerRegion(areaRegion(x, z), "https://example.com/area-" + x + "-" + z + ".mp3");
+            }
+        }
+    }
+
+    private static String cellRegion(int cellX, int cellZ) {
+        return "cell_" + cellX + "_" + cellZ;
+    }
+
+    private static String areaRegion(int areaX, int areaZ) {
+        return "area_" + areaX + "_" + areaZ;
+    }
+
+    private static class GridRegion implements ApiRegion {
+
+        private final String name;
+
+        GridRegion(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+    }
+
+}
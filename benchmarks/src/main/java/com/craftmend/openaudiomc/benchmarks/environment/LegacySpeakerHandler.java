@@ -0,0 +1,102 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientCreateSpeaker;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientRemoveSpeaker;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.ClientSpeaker;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.enums.PlayerLocationFollower;
+import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The speaker handler from before speakers were diffed by id, which compares lists of speakers by location and type
+ * on every tick. The speakers the client is playing used to live on the connection, they're kept here instead.
+ * Only kept to compare against.
+ */
+public class LegacySpeakerHandler implements ITickableHandler {
+
+    private final Player player;
+    private final SpigotConnection spigotConnection;
+    private final List<AbstractPacket> packetQue = new ArrayList<>();
+    private final SpeakerModule speakerModule = OpenAudioMcSpigot.getInstance().getSpeakerModule();
+    private List<ApplicableSpeaker> currentSpeakers = new ArrayList<>();
+
+    public LegacySpeakerHandler(Player player, SpigotConnection spigotConnection) {
+        this.player = player;
+        this.spigotConnection = spigotConnection;
+    }
+
+    @Override
+    public void tick() {
+        List<ApplicableSpeaker> applicableSpeakers = new ArrayList<>(speakerModule.getCollector().getApplicableSpeakers(player.getLocation()));
+        List<ApplicableSpeaker> enteredSpeakers = new ArrayList<>(applicableSpeakers);
+        enteredSpeakers.removeIf(speaker -> containsSpeaker(currentSpeakers, speaker));
+        List<ApplicableSpeaker> leftSpeakers = new ArrayList<>(currentSpeakers);
+        leftSpeakers.removeIf(speaker -> containsSpeaker(applicableSpeakers, speaker));
+
+        enteredSpeakers.forEach(entered -> {
+            if (!containsSpeaker(currentSpeakers, entered)) {
+
+                int obstructions = 0;
+
+                if (ExtraSpeakerOptions.PROCESS_OBSTRUCTIONS.isEnabledFor(entered.getSpeaker())) {
+                    obstructions = speakerModule.getRayTracer().obstructionsBetweenLocations(player.getLocation(), entered.getLocation());
+                }
+
+                if (ExtraSpeakerOptions.IGNORE_SYNCHRONIZATION.isEnabledFor(entered.getSpeaker())) {
+                    entered.getSpeaker().getMedia().setDoPickup(false);
+                }
+
+                packetQue.add(new PacketClientCreateSpeaker(
+                        new ClientSpeakerCreatePayload(toClientSpeaker(entered, obstructions)))
+                );
+            }
+        });
+
+        leftSpeakers.forEach(left -> {
+            ClientSpeaker clientSpeaker = toClientSpeaker(left, -1);
+            OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientRemoveSpeaker(new ClientSpeakerDestroyPayload(clientSpeaker)));
+        });
+
+        currentSpeakers = applicableSpeakers;
+
+        if (!applicableSpeakers.isEmpty() || spigotConnection.getClientConnection().getApiSpeakers() > 0) {
+
+            spigotConnection.getLocationFollowers().add(PlayerLocationFollower.SPEAKERS);
+
+            for (AbstractPacket abstractPacket : packetQue) {
+                OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), abstractPacket);
+            }
+
+            packetQue.clear();
+        }
+    }
+
+    private boolean containsSpeaker(List<ApplicableSpeaker> list, ApplicableSpeaker speaker) {
+        return list.stream().anyMatch(currentSpeaker -> currentSpeaker.equals(speaker));
+    }
+
+    private ClientSpeaker toClientSpeaker(ApplicableSpeaker speaker, int obstructions) {
+        return new ClientSpeaker(
+                speaker.getLocation(),
+                speaker.getSpeakerType(),
+                speaker.getSpeaker().getId().toString(),
+                speaker.getSpeaker().getSource(),
+                speaker.getSpeaker().getRadius(),
+                speaker.getSpeaker().getMedia().getStartInstant(),
+                obstructions
+        );
+    }
+
+}
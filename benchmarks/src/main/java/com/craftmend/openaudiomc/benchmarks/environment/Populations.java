@@ -0,0 +1,110 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates speakers, players and query locations. Everything is seeded by its size, so the same
+ * parameters always give the same world and runs can be compared.
+ *
+ * Populations are spread over a square area starting at 0,0, that grows with the population
+ * so the density stays the same regardless of the size.
+ */
+public final class Populations {
+
+    // speakers pick one of these sources, so there's always some that play the same thing
+    private static final int SOURCES = 16;
+
+    private Populations() {
+    }
+
+    /**
+     * @param count population size
+     * @param spacing average distance between two members
+     * @return the side of the square area that the population gets spread over
+     */
+    public static int sideFor(int count, int spacing) {
+        return (int) Math.ceil(Math.sqrt(count) * spacing);
+    }
+
+    /**
+     * Place speakers with a radius between 8 and 32 blocks
+     *
+     * @param environment the environment
+     * @param count amount of speakers
+     * @param spacing average distance between speakers, use a small one for places where every location hears dozens of them
+     * @return the side of the area they got placed in
+     */
+    public static int placeSpeakers(BenchmarkEnvironment environment, int count, int spacing) {
+        Random random = new Random(count);
+        int side = sideFor(count, spacing);
+        SpeakerModule speakerModule = environment.getSpeakerModule();
+
+        for (int i = 0; i < count; i++) {
+            MappedLocation location = new MappedLocation(
+                    random.nextInt(side),
+                    64 + random.nextInt(8),
+                    random.nextInt(side),
+                    environment.getWorld().getName()
+            );
+
+            speakerModule.registerSpeaker(
+                    location,
+                    "https://example.com/speaker-" + random.nextInt(SOURCES) + ".mp3",
+                    new UUID(random.nextLong(), random.nextLong()),
+                    8 + random.nextInt(25),
+                    random.nextInt(4) == 0 ? SpeakerType.SPEAKER_2D : SpeakerType.SPEAKER_3D,
+                    new HashSet<ExtraSpeakerOptions>()
+            );
+        }
+
+        return side;
+    }
+
+    /**
+     * Spawn and connect players, at random locations in the given area
+     *
+     * @param environment the environment
+     * @param count amount of players
+     * @param side side of the area
+     * @return the players
+     */
+    public static List<StubPlayer> spawnPlayers(BenchmarkEnvironment environment, int count, int side) {
+        Random random = new Random(31L * count + side);
+        List<StubPlayer> players = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Location location = new Location(environment.getWorld(), random.nextDouble() * side, 65, random.nextDouble() * side);
+            StubPlayer player = new StubPlayer("Player" + i, location, 0, side, random);
+            environment.connect(player);
+            players.add(player);
+        }
+
+        return players;
+    }
+
+    /**
+     * @param environment the environment
+     * @param count amount of locations
+     * @param side side of the area
+     * @return random locations in the area, for benchmarks that query locations instead of ticking players
+     */
+    public static Location[] probes(BenchmarkEnvironment environment, int count, int side) {
+        Random random = new Random(17L * count + side);
+        Location[] locations = new Location[count];
+        for (int i = 0; i < count; i++) {
+            locations[i] = new Location(environment.getWorld(), random.nextDouble() * side, 64 + random.nextDouble() * 8, random.nextDouble() * side);
+        }
+        return locations;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * Most of the plugin expects a running server, so the benchmark environment creates its objects
+ * without running their constructors and only fills in the fields that the hot paths actually touch.
+ */
+final class Reflection {
+
+    private static final Unsafe UNSAFE;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't access unsafe", e);
+        }
+    }
+
+    private Reflection() {
+    }
+
+    /**
+     * @param type class to create
+     * @return an instance with all fields set to their defaults, no constructors or field initializers have been run
+     */
+    static <T> T allocate(Class<T> type) {
+        try {
+            return type.cast(UNSAFE.allocateInstance(type));
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Can't allocate " + type.getName(), e);
+        }
+    }
+
+    static void set(Object target, String name, Object value) {
+        try {
+            findField(target.getClass(), name).set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't set " + name + " on " + target.getClass().getName(), e);
+        }
+    }
+
+    static void setStatic(Class<?> type, String name, Object value) {
+        try {
+            findField(type, name).set(null, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't set " + name + " on " + type.getName(), e);
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException ignored) {
+                // look in the super class
+            }
+        }
+        throw new IllegalStateException(type.getName() + " doesn't have a field called " + name + ", did it get renamed?");
+    }
+
+}
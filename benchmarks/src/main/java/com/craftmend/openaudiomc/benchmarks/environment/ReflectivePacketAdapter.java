@@ -0,0 +1,40 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.google.gson.*;
+
+import java.lang.reflect.Type;
+
+/**
+ * The payload adapter from before the payload registry, which goes through a json tree and Class.forName.
+ * Only kept to compare against.
+ */
+public class ReflectivePacketAdapter implements JsonSerializer<AbstractPacketPayload>, JsonDeserializer<AbstractPacketPayload> {
+
+    @Override
+    public JsonElement serialize(AbstractPacketPayload src, Type typeOfSrc, JsonSerializationContext context) {
+        JsonObject result = new JsonObject();
+
+        result.add("type", new JsonPrimitive(src.getClass().getName()));
+        result.add("payload", context.serialize(src, src.getClass()));
+
+        return result;
+    }
+
+    @Override
+    public AbstractPacketPayload deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+        JsonObject jsonObject = json.getAsJsonObject();
+        String type = jsonObject.get("type").getAsString();
+        JsonElement element = jsonObject.get("payload");
+
+        try {
+            if (type.contains("com.craftmend.openaudiomc")) {
+                return context.deserialize(element, Class.forName(type));
+            }
+
+            return context.deserialize(element, Class.forName("com.craftmend.openaudiomc.generic.networking.payloads." + type));
+        } catch (ClassNotFoundException cnfe) {
+            throw new JsonParseException("Unknown element type: " + type, cnfe);
+        }
+    }
+}
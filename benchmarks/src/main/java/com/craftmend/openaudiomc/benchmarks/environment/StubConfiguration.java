@@ -0,0 +1,113 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
+import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In memory configuration, keys that haven't been set are false, zero or empty
+ */
+public class StubConfiguration implements ConfigurationImplementation {
+
+    private final Map<StorageKey, Object> values = new EnumMap<>(StorageKey.class);
+
+    @Override
+    public ConfigurationImplementation loadSettings() {
+        return this;
+    }
+
+    @Override
+    public String getString(StorageKey storageKey) {
+        Object value = values.get(storageKey);
+        return value == null ? "" : value.toString();
+    }
+
+    @Override
+    public int getInt(StorageKey storageKey) {
+        Object value = values.get(storageKey);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    @Override
+    public String getStringFromPath(String path, StorageLocation storageLocation) {
+        return null;
+    }
+
+    @Override
+    public boolean isPathValid(String path, StorageLocation storageLocation) {
+        return false;
+    }
+
+    @Override
+    public Integer getIntFromPath(String path, StorageLocation storageLocation) {
+        return 0;
+    }
+
+    @Override
+    public Set<String> getStringSet(String path, StorageLocation storageLocation) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void setString(StorageKey storageKey, String string) {
+        values.put(storageKey, string);
+    }
+
+    @Override
+    public void setString(StorageLocation storageLocation, String path, String string) {
+        // there's no data file
+    }
+
+    @Override
+    public void setBoolean(StorageKey location, boolean value) {
+        values.put(location, value);
+    }
+
+    @Override
+    public void setInt(StorageLocation storageLocation, String path, int value) {
+        // there's no data file
+    }
+
+    @Override
+    public boolean getBoolean(StorageKey storageKey) {
+        return Boolean.TRUE.equals(values.get(storageKey));
+    }
+
+    @Override
+    public Object get(StorageKey storageKey) {
+        return values.get(storageKey);
+    }
+
+    @Override
+    public void set(StorageKey storageKey, Object value) {
+        values.put(storageKey, value);
+    }
+
+    @Override
+    public void reloadConfig() {
+    }
+
+    @Override
+    public void saveAll() {
+    }
+
+    @Override
+    public void overwriteConfigFile() {
+    }
+
+    @Override
+    public boolean hasDataFile() {
+        return false;
+    }
+
+    @Override
+    public boolean hasStorageKey(StorageKey storageKey) {
+        return values.containsKey(storageKey);
+    }
+
+}
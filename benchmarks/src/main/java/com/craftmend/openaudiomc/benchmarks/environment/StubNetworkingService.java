@@ -0,0 +1,85 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
+import com.craftmend.openaudiomc.generic.networking.interfaces.INetworkingEvents;
+import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Networking service without a socket, packets are only counted so the work to create them can't be optimized away
+ */
+public class StubNetworkingService extends NetworkingService {
+
+    private final Map<UUID, ClientConnection> clientMap = new HashMap<>();
+    private long sentPackets = 0;
+
+    void addClient(ClientConnection clientConnection) {
+        clientMap.put(clientConnection.getOwnerUUID(), clientConnection);
+    }
+
+    public long getSentPackets() {
+        return sentPackets;
+    }
+
+    @Override
+    public void connectIfDown() {
+    }
+
+    @Override
+    public void send(Authenticatable client, AbstractPacket packet) {
+        sentPackets++;
+    }
+
+    @Override
+    public void triggerPacket(AbstractPacket abstractPacket) {
+    }
+
+    @Override
+    public void remove(UUID player) {
+        clientMap.remove(player);
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void addEventHandler(INetworkingEvents events) {
+    }
+
+    @Override
+    public ClientConnection register(Player player) {
+        return clientMap.get(player.getUniqueId());
+    }
+
+    @Override
+    public ClientConnection register(ProxiedPlayer player) {
+        return clientMap.get(player.getUniqueId());
+    }
+
+    @Override
+    public ClientConnection register(com.velocitypowered.api.proxy.Player player) {
+        return clientMap.get(player.getUniqueId());
+    }
+
+    @Override
+    public Set<INetworkingEvents> getEvents() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public ClientConnection getClient(UUID uuid) {
+        return clientMap.get(uuid);
+    }
+
+    @Override
+    public Collection<ClientConnection> getClients() {
+        return clientMap.values();
+    }
+
+}
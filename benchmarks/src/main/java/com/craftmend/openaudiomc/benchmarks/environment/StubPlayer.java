@@ -0,0 +1,109 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * A player that can be moved around by the benchmarks
+ */
+public class StubPlayer {
+
+    private final UUID uuid;
+    private final String name;
+    private final Player player;
+    private Location location;
+
+    // walking state, players bounce between the edges of the area they were spawned in
+    private final double minimum;
+    private final double maximum;
+    private double headingX;
+    private double headingZ;
+
+    StubPlayer(String name, Location location, double minimum, double maximum, Random random) {
+        this.uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        this.name = name;
+        this.location = location;
+        this.minimum = minimum;
+        this.maximum = maximum;
+
+        double angle = random.nextDouble() * Math.PI * 2;
+        this.headingX = Math.cos(angle);
+        this.headingZ = Math.sin(angle);
+
+        this.player = Stubs.proxy(Player.class, (self, method, args) -> {
+            switch (method) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "getWorld":
+                    return this.location.getWorld();
+                // the server hands out a fresh copy every time too, or copies into the given one
+                case "getLocation":
+                    if (args.length == 1) {
+                        Location target = (Location) args[0];
+                        target.setWorld(this.location.getWorld());
+                        target.setX(this.location.getX());
+                        target.setY(this.location.getY());
+                        target.setZ(this.location.getZ());
+                        target.setYaw(this.location.getYaw());
+                        target.setPitch(this.location.getPitch());
+                        return target;
+                    }
+                    return this.location.clone();
+                case "isOnline":
+                    return true;
+                default:
+                    return Stubs.UNHANDLED;
+            }
+        });
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public void setLocation(Location location) {
+        this.location = location;
+    }
+
+    /**
+     * Move along the current heading, and turn around when the edge of the area is reached
+     *
+     * @param distance blocks to walk
+     */
+    public void walk(double distance) {
+        double x = location.getX() + headingX * distance;
+        double z = location.getZ() + headingZ * distance;
+
+        if (x < minimum || x > maximum) {
+            headingX = -headingX;
+            x = location.getX() + headingX * distance;
+        }
+
+        if (z < minimum || z > maximum) {
+            headingZ = -headingZ;
+            z = location.getZ() + headingZ * distance;
+        }
+
+        location = new Location(location.getWorld(), x, location.getY(), z, location.getYaw(), location.getPitch());
+    }
+
+}
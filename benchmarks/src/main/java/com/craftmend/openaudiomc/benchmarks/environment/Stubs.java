@@ -0,0 +1,136 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Bare minimum Bukkit implementations, backed by dynamic proxies.
+ * Methods that aren't answered return null, zero or false.
+ */
+public final class Stubs {
+
+    interface Answer {
+        /**
+         * @return the result of the call, or {@link #UNHANDLED} to fall back to the default
+         */
+        Object answer(Object self, String method, Object[] args);
+    }
+
+    static final Object UNHANDLED = new Object();
+
+    private Stubs() {
+    }
+
+    public static World world(String name, Terrain terrain) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        return proxy(World.class, (self, method, args) -> {
+            switch (method) {
+                case "getName":
+                    return name;
+                case "getUID":
+                    return id;
+                case "getBlockAt":
+                    if (args.length == 1) {
+                        Location location = (Location) args[0];
+                        return block((World) self, terrain, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                    }
+                    return block((World) self, terrain, (int) args[0], (int) args[1], (int) args[2]);
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    public static Block block(World world, Terrain terrain, int x, int y, int z) {
+        Material type = terrain.isSolid(x, y, z) ? Material.STONE : Material.AIR;
+        return proxy(Block.class, (self, method, args) -> {
+            switch (method) {
+                case "getType":
+                    return type;
+                case "getWorld":
+                    return world;
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "getLocation":
+                    return new Location(world, x, y, z);
+                // blocks end up in sets, so they need to compare like the real ones do
+                case "equals":
+                    if (!(args[0] instanceof Block)) return false;
+                    Block other = (Block) args[0];
+                    return other.getX() == x && other.getY() == y && other.getZ() == z && other.getWorld() == world;
+                case "hashCode":
+                    return Objects.hash(world.getName(), x, y, z);
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    public static Server server(Supplier<Collection<? extends Player>> onlinePlayers) {
+        Logger logger = Logger.getLogger("OpenAudioMc-Benchmarks");
+        return proxy(Server.class, (self, method, args) -> {
+            switch (method) {
+                case "getOnlinePlayers":
+                    return onlinePlayers.get();
+                case "getLogger":
+                    return logger;
+                case "getName":
+                    return "Benchmarks";
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "1.13.2-R0.1-SNAPSHOT";
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    static <T> T proxy(Class<T> type, Answer answer) {
+        Object proxy = Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class[]{type}, (self, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            Object result = answer.answer(self, method.getName(), arguments);
+            if (result != UNHANDLED) return result;
+
+            switch (method.getName()) {
+                case "equals":
+                    return self == arguments[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        return 0D;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.craftmend.openaudiomc.benchmarks.environment;
+
+/**
+ * Decides which blocks of a stubbed world are solid
+ */
+public interface Terrain {
+
+    // a solid floor below y 64, and a grid of thin walls above it
+    Terrain WALLED_GRID = (x, y, z) -> y < 64 || Math.floorMod(x, 8) == 0 || Math.floorMod(z, 8) == 0;
+
+    boolean isSolid(int x, int y, int z);
+
+}
@@ -0,0 +1,104 @@
+// MessagePack extension type that the plugin uses for UUIDs
+const UUID_EXTENSION = 1;
+
+// reads the MessagePack packets that the plugin sends to clients on protocol revision 6 and up
+export function decodeBinaryPacket(buffer) {
+    const bytes = buffer instanceof ArrayBuffer
+        ? new Uint8Array(buffer)
+        : new Uint8Array(buffer.buffer, buffer.byteOffset, buffer.byteLength);
+    const reader = new BinaryReader(bytes);
+    return reader.read();
+}
+
+class BinaryReader {
+
+    constructor(bytes) {
+        this.bytes = bytes;
+        this.view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+        this.offset = 0;
+        this.textDecoder = new TextDecoder("utf-8");
+    }
+
+    read() {
+        const marker = this.bytes[this.offset++];
+
+        if (marker <= 0x7f) return marker;
+        if (marker <= 0x8f) return this.readMap(marker & 0x0f);
+        if (marker <= 0x9f) return this.readArray(marker & 0x0f);
+        if (marker <= 0xbf) return this.readString(marker & 0x1f);
+        if (marker >= 0xe0) return marker - 0x100;
+
+        switch (marker) {
+            case 0xc0: return null;
+            case 0xc2: return false;
+            case 0xc3: return true;
+            case 0xca: return this.take(4, () => this.view.getFloat32(this.offset));
+            case 0xcb: return this.take(8, () => this.view.getFloat64(this.offset));
+            case 0xcc: return this.take(1, () => this.view.getUint8(this.offset));
+            case 0xcd: return this.take(2, () => this.view.getUint16(this.offset));
+            case 0xce: return this.take(4, () => this.view.getUint32(this.offset));
+            case 0xcf: return this.take(8, () => this.readInt64(false));
+            case 0xd0: return this.take(1, () => this.view.getInt8(this.offset));
+            case 0xd1: return this.take(2, () => this.view.getInt16(this.offset));
+            case 0xd2: return this.take(4, () => this.view.getInt32(this.offset));
+            case 0xd3: return this.take(8, () => this.readInt64(true));
+            case 0xd8: return this.readExtension(16);
+            case 0xd9: return this.readString(this.take(1, () => this.view.getUint8(this.offset)));
+            case 0xda: return this.readString(this.take(2, () => this.view.getUint16(this.offset)));
+            case 0xdb: return this.readString(this.take(4, () => this.view.getUint32(this.offset)));
+            case 0xdc: return this.readArray(this.take(2, () => this.view.getUint16(this.offset)));
+            case 0xdd: return this.readArray(this.take(4, () => this.view.getUint32(this.offset)));
+            case 0xde: return this.readMap(this.take(2, () => this.view.getUint16(this.offset)));
+            case 0xdf: return this.readMap(this.take(4, () => this.view.getUint32(this.offset)));
+        }
+
+        throw new Error("Unsupported MessagePack type 0x" + marker.toString(16));
+    }
+
+    // reads a value at the current offset, and moves past it
+    take(length, reader) {
+        const value = reader();
+        this.offset += length;
+        return value;
+    }
+
+    readInt64(signed) {
+        const high = signed ? this.view.getInt32(this.offset) : this.view.getUint32(this.offset);
+        const low = this.view.getUint32(this.offset + 4);
+        return high * 0x100000000 + low;
+    }
+
+    readString(length) {
+        const value = this.textDecoder.decode(this.bytes.subarray(this.offset, this.offset + length));
+        this.offset += length;
+        return value;
+    }
+
+    readArray(size) {
+        const array = new Array(size);
+        for (let i = 0; i < size; i++) array[i] = this.read();
+        return array;
+    }
+
+    readMap(size) {
+        const map = {};
+        for (let i = 0; i < size; i++) {
+            const key = this.read();
+            map[key] = this.read();
+        }
+        return map;
+    }
+
+    readExtension(length) {
+        const type = this.bytes[this.offset++];
+        const data = this.bytes.subarray(this.offset, this.offset + length);
+        this.offset += length;
+
+        if (type !== UUID_EXTENSION) throw new Error("Unsupported MessagePack extension " + type);
+
+        let hex = "";
+        for (let i = 0; i < data.length; i++) hex += (data[i] < 0x10 ? "0" : "") + data[i].toString(16);
+        return hex.substring(0, 8) + "-" + hex.substring(8, 12) + "-" + hex.substring(12, 16) + "-"
+            + hex.substring(16, 20) + "-" + hex.substring(20);
+    }
+}
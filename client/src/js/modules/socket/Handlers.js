@@ -1,6 +1,7 @@
 import {handleCreateMedia} from "./handlers/HandleCreateMedia";
 import {handleNotification} from "./handlers/HandleNotification";
 import {handleProtocolVersion} from "./handlers/HandleProtocolVersion";
+import {handlePacketBatch} from "./handlers/HandlePacketBatch";
 import {handleClientVolume} from "./handlers/HandleClientVolume";
 import {handleDestroyMedia} from "./handlers/HandleDestroyMedia";
 import {handleHuePayload} from "./handlers/HandleHue";
@@ -24,6 +25,7 @@ export class Handlers {
 
         // general protocol
         registerClassHandler("ClientVersionPayload", handleProtocolVersion);
+        registerClassHandler("ClientPacketBatchPayload", handlePacketBatch);
         registerClassHandler("NotificationPayload", handleNotification);
         registerClassHandler("HueColorPayload", handleHuePayload);
         registerClassHandler("ClientPlayerLocationPayload", handlePlayerLocation);
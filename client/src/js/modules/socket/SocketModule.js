@@ -1,5 +1,6 @@
 import ClientTokenSet from "../../helpers/libs/ClientTokenSet";
 import {strictlyShowCard, UiCards} from "../ui/UserInterfaceModule";
+import {decodeBinaryPacket} from "./BinaryPacketDecoder";
 
 export class SocketModule {
 
@@ -8,6 +9,8 @@ export class SocketModule {
         this.openAudioMc = main;
         this.callbacksEnabled = false;
         this.supportsYoutube = false;
+        this.supportsBatching = false;
+        this.supportsBinary = false;
         this.hasConnected = false;
         this.outgoingQueue = [];
 
@@ -60,15 +63,19 @@ export class SocketModule {
             main.voiceModule.shutDown();
         });
 
-        this.socket.on("data", data => {
-            let packages = data.type.split(".");
-            let payloadType = packages[packages.length - 1];
-            if (that.handlers[payloadType] != null) that.handlers[payloadType](data.payload);
-        });
+        this.socket.on("data", data => that.handleData(data));
 
         this.socket.connect();
     }
 
+    handleData(data) {
+        // binary packets are only sent after we got protocol revision 6
+        if (data instanceof ArrayBuffer || ArrayBuffer.isView(data)) data = decodeBinaryPacket(data);
+        let packages = data.type.split(".");
+        let payloadType = packages[packages.length - 1];
+        if (this.handlers[payloadType] != null) this.handlers[payloadType](data.payload);
+    }
+
     send(event, data) {
         if (this.hasConnected) {
             if (this.callbacksEnabled) {
@@ -0,0 +1,11 @@
+export function handlePacketBatch(openAudioMc, data) {
+    // servers only batch after telling us about protocol revision 5
+    if (!openAudioMc.socketModule.supportsBatching) {
+        console.log("[OpenAudioMc] Received a packet batch before batches were enabled");
+    }
+
+    // every packet in the batch has its own type, handle them in the order they were sent
+    for (let i = 0; i < data.packets.length; i++) {
+        openAudioMc.socketModule.handleData(data.packets[i]);
+    }
+}
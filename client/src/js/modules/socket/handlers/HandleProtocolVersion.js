@@ -22,6 +22,18 @@ export function handleProtocolVersion(openAudioMc, data) {
         openAudioMc.mediaManager.startVolumeWatcher(openAudioMc)
     }
 
+    if (revision >= 5) {
+        // enable packet batches
+        console.log("[OpenAudioMc] PROTO rev => 5, enabling packet batches");
+        openAudioMc.socketModule.supportsBatching = true;
+    }
+
+    if (revision >= 6) {
+        // enable binary packets
+        console.log("[OpenAudioMc] PROTO rev => 6, enabling binary packets");
+        openAudioMc.socketModule.supportsBinary = true;
+    }
+
     // outdated? lets check it
     if (revision < 3) {
         let requestBox = new AlertBox('#alert-area', {
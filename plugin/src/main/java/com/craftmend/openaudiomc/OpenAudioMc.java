@@ -12,7 +12,6 @@ import com.craftmend.openaudiomc.generic.migrations.MigrationWorker;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
 import com.craftmend.openaudiomc.generic.platform.Platform;
 import com.craftmend.openaudiomc.generic.objects.OpenAudioApi;
-import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
 import com.craftmend.openaudiomc.generic.networking.addapter.AbstractPacketAdapter;
 import com.craftmend.openaudiomc.generic.craftmend.CraftmendService;
 import com.craftmend.openaudiomc.generic.redis.RedisService;
@@ -21,6 +20,7 @@ import com.craftmend.openaudiomc.generic.platform.interfaces.TaskProvider;
 import com.craftmend.openaudiomc.generic.redis.packets.interfaces.OARedisPacket;
 import com.craftmend.openaudiomc.generic.enviroment.GlobalConstantService;
 import com.craftmend.openaudiomc.generic.state.StateService;
+import com.craftmend.openaudiomc.generic.storage.persistence.PersistenceService;
 
 import com.craftmend.openaudiomc.spigot.modules.show.adapter.RunnableTypeAdapter;
 import com.craftmend.openaudiomc.spigot.modules.show.interfaces.ShowRunnable;
@@ -62,6 +62,7 @@ public class OpenAudioMc {
      * - Plus Service            []   (Manages everything OpenAudioMc-Plus related, from auth to upstream data)
      * - Update Service          []   (Checks the master branch every once in a while to compare versions)
      * - Voice Service           []   (Service handling OpenAudioMc's voice chat routing and servers)
+     * - Persistence Service     []   (Saves speaker and region changes in batches, in the background)
      */
     private final ApiEventDriver apiEventDriver = new ApiEventDriver();
     private final AuthenticationService authenticationService;
@@ -75,6 +76,7 @@ public class OpenAudioMc {
     private final TaskProvider taskProvider;
     private final RedisService redisService;
     private final CraftmendService craftmendService;
+    private final PersistenceService persistenceService;
     private final Platform platform;
     private final OpenAudioInvoker invoker;
     private final boolean cleanStartup;
@@ -84,7 +86,7 @@ public class OpenAudioMc {
     @Deprecated @Getter private static final OpenAudioApi api = new OpenAudioApi();
     @Getter private static OpenAudioMc instance;
     @Getter private static final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(AbstractPacketPayload.class, new AbstractPacketAdapter())
+            .registerTypeAdapterFactory(new AbstractPacketAdapter())
             .registerTypeAdapter(ShowRunnable.class, new RunnableTypeAdapter())
             .registerTypeAdapter(OARedisPacket.class, new RedisTypeAdapter())
             .create();
@@ -102,6 +104,7 @@ public class OpenAudioMc {
         globalConstantService = new GlobalConstantService();
 
         new MigrationWorker().handleMigrations();
+        this.persistenceService = new PersistenceService(taskProvider);
 
         this.commandModule = new CommandModule(this);
         this.redisService = new RedisService(this.configuration);
@@ -114,6 +117,8 @@ public class OpenAudioMc {
 
     public void disable() {
         isDisabled = true;
+        // write everything that's still queued, before the data file gets saved
+        persistenceService.flushAll();
         configuration.saveAll();
         try {
             this.craftmendService.shutdown();
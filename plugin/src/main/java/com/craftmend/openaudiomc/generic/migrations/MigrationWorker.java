@@ -24,6 +24,15 @@ public class MigrationWorker {
             new AddNewVoicechatMessagesMigration(), // adds new chat messages for the voice chat system
             new AddVcAnnouncementMigration(),       // adds the config option to toggle chat announcements
             new VoiceConnectedMessageMigration(),   // adds required messages for mic mute commands
+            new AddMovementThresholdMigration(),    // adds the distance players need to move before re-checking speakers and regions
+            new AddLazySpeakersMigration(),         // adds the option to only load speakers in loaded chunks
+            new AddPersistenceQueueMigration(),     // adds the flush interval and size of the background saving queue
+            new AddSpeakerClusteringMigration(),    // adds the distance in which speakers get merged into one
+            new AddNativeRegionIndexMigration(),    // adds the option to index audio regions without worldguard
+            new AddRegionPrefetchMigration(),       // adds how far ahead to prefetch audio regions that players walk into
+            new AddLocationUpdateRateMigration(),   // adds the max rate of location updates for clients
+            new AddPacketBatchingMigration(),       // adds the option to batch packets for clients
+            new AddBinaryPacketsMigration(),        // adds the option to send binary packets to clients
     };
 
     public void handleMigrations() {
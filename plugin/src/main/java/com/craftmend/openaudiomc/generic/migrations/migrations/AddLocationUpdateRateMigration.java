@@ -0,0 +1,20 @@
+package com.craftmend.openaudiomc.generic.migrations.migrations;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.migrations.interfaces.SimpleMigration;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
+
+public class AddLocationUpdateRateMigration extends SimpleMigration {
+
+    @Override
+    public boolean shouldBeRun() {
+        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+        return !config.hasStorageKey(StorageKey.SETTINGS_LOCATION_UPDATE_RATE);
+    }
+
+    @Override
+    public void execute() {
+        migrateFilesFromResources();
+    }
+}
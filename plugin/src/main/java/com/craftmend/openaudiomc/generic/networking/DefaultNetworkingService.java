@@ -97,6 +97,20 @@ public class DefaultNetworkingService extends NetworkingService {
         socketIoConnector.send(client, packet);
     }
 
+    /**
+     * send the same packet to a group of clients, it only gets serialized once
+     *
+     * @param clients the targets
+     * @param packet  the data, shared by all targets
+     */
+    @Override
+    public void broadcast(Collection<? extends Authenticatable> clients, AbstractPacket packet) {
+        for (Authenticatable client : clients) {
+            for (INetworkingEvents event : getEvents()) event.onPacketSend(client, packet);
+        }
+        socketIoConnector.broadcast(clients, packet);
+    }
+
     /**
      * a packet got received, this function handles it on to the api for
      * parsing and processing in the plugin
@@ -2,38 +2,95 @@ package com.craftmend.openaudiomc.generic.networking.addapter;
 
 import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
 import com.google.gson.*;
-import java.lang.reflect.Type;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-public class AbstractPacketAdapter implements JsonSerializer<AbstractPacketPayload>, JsonDeserializer<AbstractPacketPayload> {
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AbstractPacketAdapter implements TypeAdapterFactory {
 
     /**
      * a type adapter for the using of the packet framework
+     * payloads are written as their type and content, straight to the stream with the adapter of their class,
+     * or with a hand written one for the payloads that get sent the most (see PayloadWriters)
      */
 
     @Override
-    public JsonElement serialize(AbstractPacketPayload src, Type typeOfSrc, JsonSerializationContext context) {
-        JsonObject result = new JsonObject();
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != AbstractPacketPayload.class) return null;
+        return (TypeAdapter<T>) new PayloadAdapter(gson);
+    }
 
-        result.add("type", new JsonPrimitive(src.getClass().getName()));
-        result.add("payload", context.serialize(src, src.getClass()));
+    private static class PayloadAdapter extends TypeAdapter<AbstractPacketPayload> {
 
-        return result;
-    }
+        private final Gson gson;
+        private final Map<Class<?>, TypeAdapter<AbstractPacketPayload>> adapters = new ConcurrentHashMap<>();
 
-    @Override
-    public AbstractPacketPayload deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        JsonObject jsonObject = json.getAsJsonObject();
-        String type = jsonObject.get("type").getAsString();
-        JsonElement element = jsonObject.get("payload");
-
-        try {
-            if (type.contains("com.craftmend.openaudiomc")) {
-                return context.deserialize(element, Class.forName(type));
+        private PayloadAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(JsonWriter out, AbstractPacketPayload value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
             }
 
-            return context.deserialize(element, Class.forName("com.craftmend.openaudiomc.generic.networking.payloads." + type));
-        } catch (ClassNotFoundException cnfe) {
-            throw new JsonParseException("Unknown element type: " + type, cnfe);
+            out.beginObject();
+            out.name("type").value(value.getClass().getName());
+            out.name("payload");
+            getAdapter(value.getClass()).write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public AbstractPacketPayload read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Class<? extends AbstractPacketPayload> type = null;
+            AbstractPacketPayload payload = null;
+            // only used when the payload comes before its type
+            JsonElement bufferedPayload = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("type")) {
+                    String typeName = in.nextString();
+                    try {
+                        type = PayloadRegistry.getPayloadClass(typeName);
+                    } catch (ClassNotFoundException cnfe) {
+                        throw new JsonParseException("Unknown element type: " + typeName, cnfe);
+                    }
+                } else if (name.equals("payload")) {
+                    if (type != null) {
+                        payload = getAdapter(type).read(in);
+                    } else {
+                        bufferedPayload = gson.getAdapter(JsonElement.class).read(in);
+                    }
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (type == null) throw new JsonParseException("Payload without a type");
+            if (bufferedPayload != null) payload = getAdapter(type).fromJsonTree(bufferedPayload);
+            return payload;
+        }
+
+        @SuppressWarnings("unchecked")
+        private TypeAdapter<AbstractPacketPayload> getAdapter(Class<?> type) {
+            return adapters.computeIfAbsent(type, key -> PayloadWriters.wrap(gson, key, (TypeAdapter<AbstractPacketPayload>) gson.getAdapter(key)));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.craftmend.openaudiomc.generic.networking.addapter;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.enums.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.payloads.AcknowledgeClientPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.ClientConnectionPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.ClientDisconnectPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.hue.HueColorPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientCreateMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientDestroyMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientPreFetchPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientUpdateMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientPacketBatchPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientVersionPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientVolumePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.NotificationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.*;
+import com.craftmend.openaudiomc.generic.networking.payloads.in.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The payload of every packet channel, with a fixed id per channel.
+ *
+ * Ids are what the nodes and the proxy use to tell each other what a forwarded packet is, so they should never
+ * be changed or reused. Incoming payloads get their class from here instead of a Class.forName for every packet.
+ */
+public class PayloadRegistry {
+
+    private static final String PAYLOAD_PACKAGE = "com.craftmend.openaudiomc.generic.networking.payloads.";
+
+    private static final Map<PacketChannel, PayloadType> BY_CHANNEL = new EnumMap<>(PacketChannel.class);
+    private static final Map<Short, PayloadType> BY_ID = new HashMap<>();
+    private static final Map<String, Class<? extends AbstractPacketPayload>> BY_NAME = new ConcurrentHashMap<>();
+
+    static {
+        // socket in
+        register(1, PacketChannel.SOCKET_IN_REGISTER_CLIENT, ClientConnectionPayload.class);
+        register(2, PacketChannel.SOCKET_IN_UNREGISTER_CLIENT, ClientDisconnectPayload.class);
+        register(3, PacketChannel.SOCKET_IN_CLIENT_ENABLED_HUE, ClientEnabledHuePayload.class);
+        register(4, PacketChannel.SOCKET_IN_CLIENT_FAILED_MEDIA, ClientFailedMediaPayload.class);
+        register(5, PacketChannel.SOCKET_IN_CLIENT_UPDATE_CHANNELS, ClientUpdateChannelListPayload.class);
+        register(6, PacketChannel.SOCKET_IN_CLIENT_CHANGED_VOLUME, ClientChangedVolumePayload.class);
+        register(7, PacketChannel.SOCKET_IN_CLIENT_INITIALIZED_RTC, ClientOpenedRtcPayload.class);
+
+        // socket out, kicking doesn't have a payload
+        register(20, PacketChannel.SOCKET_OUT_KICK_CLIENT, null);
+        register(21, PacketChannel.SOCKET_OUT_ACKNOWLEDGEMENT, AcknowledgeClientPayload.class);
+
+        // client out
+        register(40, PacketChannel.CLIENT_OUT_CREATE_MEDIA, ClientCreateMediaPayload.class);
+        register(41, PacketChannel.CLIENT_OUT_UPDATE_MEDIA, ClientUpdateMediaPayload.class);
+        register(42, PacketChannel.CLIENT_OUT_SET_PROTOCOL_VERSION, ClientVersionPayload.class);
+        register(43, PacketChannel.CLIENT_OUT_DESTROY_MEDIA, ClientDestroyMediaPayload.class);
+        register(44, PacketChannel.CLIENT_OUT_PREFETCH, ClientPreFetchPayload.class);
+        register(45, PacketChannel.CLIENT_OUT_PUSH_NOTIFICATION, NotificationPayload.class);
+        register(46, PacketChannel.CLIENT_OUT_SET_VOLUME, ClientVolumePayload.class);
+        register(47, PacketChannel.CLIENT_OUT_SET_HUE, HueColorPayload.class);
+        register(48, PacketChannel.CLIENT_OUT_PLAYER_LOCATION, ClientPlayerLocationPayload.class);
+        register(49, PacketChannel.CLIENT_OUT_SPEAKER_CREATE, ClientSpeakerCreatePayload.class);
+        register(50, PacketChannel.CLIENT_OUT_SPEAKER_DESTROY, ClientSpeakerDestroyPayload.class);
+        register(51, PacketChannel.CLIENT_OUT_VOICE_UNLOCK, ClientVoiceChatUnlockPayload.class);
+        register(52, PacketChannel.CLIENT_OUT_VOICE_DROP_STREAM, ClientVoiceDropPayload.class);
+        register(53, PacketChannel.CLIENT_OUT_VOICE_UPDATE_PEER_LOCATIONS, ClientVoiceUpdatePeerLocationsPayload.class);
+        register(54, PacketChannel.CLIENT_OUT_VOICE_SUBSCRIBE, ClientVoiceSubscribePayload.class);
+        register(55, PacketChannel.CLIENT_OUT_TOGGLE_MIC, ClientVoiceChatToggleMicrophonePayload.class);
+        register(56, PacketChannel.CLIENT_OUT_PACKET_BATCH, ClientPacketBatchPayload.class);
+    }
+
+    private static void register(int id, PacketChannel channel, Class<? extends AbstractPacketPayload> payloadClass) {
+        PayloadType type = new PayloadType((short) id, channel, payloadClass);
+        if (BY_ID.put(type.getId(), type) != null) throw new IllegalStateException("Payload id " + id + " is used twice");
+        BY_CHANNEL.put(channel, type);
+
+        if (payloadClass != null) {
+            // the relay uses both the full name and the name within the payload package
+            BY_NAME.put(payloadClass.getName(), payloadClass);
+            BY_NAME.put(payloadClass.getName().substring(PAYLOAD_PACKAGE.length()), payloadClass);
+        }
+    }
+
+    /**
+     * @param channel the packet channel
+     * @return its payload type, or null if it isn't registered
+     */
+    public static PayloadType getType(PacketChannel channel) {
+        return BY_CHANNEL.get(channel);
+    }
+
+    /**
+     * @param id payload id
+     * @return the payload type with that id, or null if there is none
+     */
+    public static PayloadType getType(short id) {
+        return BY_ID.get(id);
+    }
+
+    /**
+     * Find the class of an incoming payload, by its full name or its name within the payload package
+     *
+     * @param name the type of the payload
+     * @return its class
+     * @throws ClassNotFoundException if there's no such payload
+     */
+    public static Class<? extends AbstractPacketPayload> getPayloadClass(String name) throws ClassNotFoundException {
+        Class<? extends AbstractPacketPayload> payloadClass = BY_NAME.get(name);
+        if (payloadClass != null) return payloadClass;
+
+        // not one of ours, so only look it up once
+        String className = name.contains("com.craftmend.openaudiomc") ? name : PAYLOAD_PACKAGE + name;
+        try {
+            payloadClass = Class.forName(className).asSubclass(AbstractPacketPayload.class);
+        } catch (ClassCastException e) {
+            throw new ClassNotFoundException(className + " is not a payload", e);
+        }
+        BY_NAME.put(name, payloadClass);
+        return payloadClass;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PayloadType {
+        private final short id;
+        private final PacketChannel channel;
+        private final Class<? extends AbstractPacketPayload> payloadClass;
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.craftmend.openaudiomc.generic.networking.addapter;
+
+import com.craftmend.openaudiomc.generic.media.objects.Media;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientRtcLocationUpdate;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientCreateMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.ClientSpeaker;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionMedia;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hand written writers for the payloads that get sent the most (media, speakers and locations), so they
+ * skip the reflection of gson's own adapter. They write the same fields in the same order as gson would.
+ *
+ * Media is only written by hand when it's a {@link Media} or {@link RegionMedia}, which doesn't add any fields.
+ * Other subclasses go through gson's adapter for their own class, so the fields they add still get written.
+ * Reading still goes through gson's adapter, these payloads only get read when a proxy forwards them.
+ */
+final class PayloadWriters {
+
+    private interface Writer<T> {
+        void write(Gson gson, JsonWriter out, T value) throws IOException;
+    }
+
+    private static final Map<Class<?>, Writer<?>> WRITERS = new HashMap<>();
+
+    static {
+        register(ClientCreateMediaPayload.class, PayloadWriters::writeCreateMedia);
+        register(ClientSpeakerCreatePayload.class, (gson, out, payload) -> writeSpeakerPayload(out, payload.getClientSpeaker()));
+        register(ClientSpeakerDestroyPayload.class, (gson, out, payload) -> writeSpeakerPayload(out, payload.getClientSpeaker()));
+        register(ClientPlayerLocationPayload.class, (gson, out, payload) -> writePlayerLocation(out, payload));
+        register(ClientVoiceUpdatePeerLocationsPayload.class, (gson, out, payload) -> writePeerLocations(out, payload));
+    }
+
+    private PayloadWriters() {
+    }
+
+    private static <T extends AbstractPacketPayload> void register(Class<T> type, Writer<T> writer) {
+        WRITERS.put(type, writer);
+    }
+
+    /**
+     * @param gson gson instance, for values that can't be written by hand
+     * @param type payload class
+     * @param reflective gson's own adapter for the class
+     * @return an adapter with a hand written writer if there is one, otherwise the given adapter
+     */
+    @SuppressWarnings("unchecked")
+    static TypeAdapter<AbstractPacketPayload> wrap(Gson gson, Class<?> type, TypeAdapter<AbstractPacketPayload> reflective) {
+        Writer<AbstractPacketPayload> writer = (Writer<AbstractPacketPayload>) WRITERS.get(type);
+        if (writer == null) return reflective;
+
+        return new TypeAdapter<AbstractPacketPayload>() {
+            @Override
+            public void write(JsonWriter out, AbstractPacketPayload value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                writer.write(gson, out, value);
+            }
+
+            @Override
+            public AbstractPacketPayload read(JsonReader in) throws IOException {
+                return reflective.read(in);
+            }
+        };
+    }
+
+    private static void writeCreateMedia(Gson gson, JsonWriter out, ClientCreateMediaPayload payload) throws IOException {
+        out.beginObject();
+        out.name("media");
+        writeMedia(gson, out, payload.getMedia());
+        out.name("distance").value(payload.getDistance());
+        out.name("maxDistance").value(payload.getMaxDistance());
+        out.endObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeMedia(Gson gson, JsonWriter out, Media media) throws IOException {
+        if (media == null) {
+            out.nullValue();
+            return;
+        }
+
+        // subclasses that add fields are written the way gson would write them
+        if (media.getClass() != Media.class && media.getClass() != RegionMedia.class) {
+            ((TypeAdapter<Media>) gson.getAdapter(media.getClass())).write(out, media);
+            return;
+        }
+
+        out.beginObject();
+        out.name("mediaId").value(media.getMediaId());
+        out.name("source").value(media.getSource());
+        out.name("startInstant").value(media.getStartInstant());
+        out.name("doPickup").value(media.isDoPickup());
+        out.name("loop").value(media.isLoop());
+        out.name("fadeTime").value(media.getFadeTime());
+        out.name("volume").value(media.getVolume());
+        out.name("flag").value(media.getFlag() == null ? null : media.getFlag().name());
+        out.endObject();
+    }
+
+    private static void writeSpeakerPayload(JsonWriter out, ClientSpeaker speaker) throws IOException {
+        out.beginObject();
+        out.name("clientSpeaker");
+        if (speaker == null) {
+            out.nullValue();
+        } else {
+            out.beginObject();
+            out.name("location");
+            if (speaker.getLocation() == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                out.name("x").value(speaker.getLocation().getX());
+                out.name("y").value(speaker.getLocation().getY());
+                out.name("z").value(speaker.getLocation().getZ());
+                out.endObject();
+            }
+            out.name("type").value(speaker.getType() == null ? null : speaker.getType().name());
+            out.name("id").value(speaker.getId());
+            out.name("source").value(speaker.getSource());
+            out.name("maxDistance").value(speaker.getMaxDistance());
+            out.name("startInstant").value(speaker.getStartInstant());
+            out.name("obstructions").value(speaker.getObstructions());
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private static void writePlayerLocation(JsonWriter out, ClientPlayerLocationPayload payload) throws IOException {
+        out.beginObject();
+        out.name("x").value(payload.getX());
+        out.name("y").value(payload.getY());
+        out.name("z").value(payload.getZ());
+        out.name("pitch").value(payload.getPitch());
+        out.name("yaw").value(payload.getYaw());
+        out.endObject();
+    }
+
+    private static void writePeerLocations(JsonWriter out, ClientVoiceUpdatePeerLocationsPayload payload) throws IOException {
+        out.beginObject();
+        out.name("updateSet");
+        if (payload.getUpdateSet() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (ClientRtcLocationUpdate update : payload.getUpdateSet()) {
+                if (update == null) {
+                    out.nullValue();
+                    continue;
+                }
+                out.beginObject();
+                out.name("streamKey").value(update.getStreamKey());
+                out.name("x").value(update.getX());
+                out.name("y").value(update.getY());
+                out.name("z").value(update.getZ());
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+}
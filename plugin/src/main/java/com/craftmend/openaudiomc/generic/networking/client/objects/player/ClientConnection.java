@@ -63,6 +63,11 @@ public class ClientConnection implements Authenticatable, Client {
     @Getter @Setter private boolean hasHueLinked = false;
     @Getter @Setter private boolean isConnectedToRtc = false;
 
+    // packets that wait to be sent together, only used once the client knows how to unpack a batch
+    @Getter private final List<AbstractPacket> outboundBatch = new ArrayList<>();
+    @Getter @Setter private volatile boolean batchingPackets = false;
+    @Getter @Setter private volatile boolean binaryPackets = false;
+
     // player implementation
     @Getter private final PlayerContainer player;
     private Instant lastConnectPrompt = Instant.now();
@@ -115,6 +120,9 @@ public class ClientConnection implements Authenticatable, Client {
 
         OpenAudioMc.getInstance().getTaskProvider().schduleSyncDelayedTask(() -> {
                     OpenAudioMc.getInstance().getNetworkingService().send(this, new PacketClientProtocolRevisionPacket());
+                    // the client can unpack batches and binary packets from here on out
+                    batchingPackets = StorageKey.SETTINGS_BATCH_CLIENT_PACKETS.getBoolean();
+                    binaryPackets = StorageKey.SETTINGS_BINARY_CLIENT_PACKETS.getBoolean();
 
                     ongoingMedia.forEach(this::sendMedia);
 
@@ -151,6 +159,11 @@ public class ClientConnection implements Authenticatable, Client {
         this.isConnected = false;
         this.hasHueLinked = false;
         this.isConnectedToRtc = false;
+        this.batchingPackets = false;
+        this.binaryPackets = false;
+        synchronized (outboundBatch) {
+            outboundBatch.clear();
+        }
         disconnectHandlers.forEach(event -> event.run());
 
         // am I a proxy thingy? then send it to my other thingy
@@ -227,17 +240,25 @@ public class ClientConnection implements Authenticatable, Client {
      * @param media media to be send
      */
     public void sendMedia(Media media) {
+        if (prepareMedia(media)) sendPacket(new PacketClientCreateMedia(media));
+    }
+
+    /**
+     * Keep track of media for this client, without sending it. Used when the same media gets broadcast to many clients.
+     *
+     * @param media the media
+     * @return if the client is connected, and the media has to be sent to it
+     */
+    public boolean prepareMedia(Media media) {
         if (media.getKeepTimeout() != -1 && !ongoingMedia.contains(media)) {
             ongoingMedia.add(media);
 
             // stop after x seconds
             OpenAudioMc.getInstance().getTaskProvider().schduleSyncDelayedTask(() -> ongoingMedia.remove(media), (20 * media.getKeepTimeout()));
         }
-        if (getIsConnected()) {
-            sendPacket(new PacketClientCreateMedia(media));
-        } else {
-            tickClient();
-        }
+        if (getIsConnected()) return true;
+        tickClient();
+        return false;
     }
 
     public void sendPacket(AbstractPacket packet) {
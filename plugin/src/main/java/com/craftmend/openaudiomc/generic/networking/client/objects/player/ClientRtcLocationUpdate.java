@@ -1,7 +1,9 @@
 package com.craftmend.openaudiomc.generic.networking.client.objects.player;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 
+@Getter
 @AllArgsConstructor
 public class ClientRtcLocationUpdate {
 
@@ -41,6 +41,10 @@ public enum PacketChannel {
     CLIENT_OUT_VOICE_UPDATE_PEER_LOCATIONS,
     CLIENT_OUT_VOICE_SUBSCRIBE,
     CLIENT_OUT_TOGGLE_MIC,
+
+    // multiple client packets in one frame
+    CLIENT_OUT_PACKET_BATCH,
+
     SOCKET_IN_CLIENT_INITIALIZED_RTC,
 
 }
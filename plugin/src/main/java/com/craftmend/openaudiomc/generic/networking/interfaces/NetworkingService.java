@@ -26,6 +26,16 @@ public abstract class NetworkingService {
     public abstract ClientConnection getClient(UUID uuid);
     public abstract Collection<ClientConnection> getClients();
 
+    /**
+     * send the same packet to a group of clients
+     *
+     * @param clients the targets
+     * @param packet the data, shared by all targets
+     */
+    public void broadcast(Collection<? extends Authenticatable> clients, AbstractPacket packet) {
+        for (Authenticatable client : clients) send(client, packet);
+    }
+
     public UUID subscribeToConnections(Consumer<ClientConnection> handler) {
         UUID id = UUID.randomUUID();
         createdConnectionSubscribers.put(id, handler);
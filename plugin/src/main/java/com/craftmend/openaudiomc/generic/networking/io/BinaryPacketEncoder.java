@@ -0,0 +1,196 @@
+package com.craftmend.openaudiomc.generic.networking.io;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.enums.PacketChannel;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes packet payloads as MessagePack, for web clients that told us they can read it.
+ *
+ * Payloads get written from their json tree with a few things made smaller on the way: payload types only keep
+ * their class name (the web client only looks at that part), UUIDs become 16 bytes of extension type 1,
+ * whole numbers become integers and decimals that fit in a float are written as one.
+ */
+public class BinaryPacketEncoder {
+
+    // MessagePack extension type that the web client turns back into a UUID string
+    private static final int UUID_EXTENSION = 1;
+
+    /**
+     * @param payload the payload, can be null
+     * @return the payload in MessagePack
+     */
+    public static byte[] encode(AbstractPacketPayload payload) {
+        JsonElement tree = OpenAudioMc.getGson().toJsonTree(payload, AbstractPacketPayload.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            write(new DataOutputStream(bytes), tree);
+        } catch (IOException e) {
+            // can't happen when writing to memory
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Wrap an encoded payload like a json packet, so the relay can still see who it's for.
+     * Socket.io sends the payload as a binary attachment.
+     *
+     * @param client the target
+     * @param channel the channel of the packet
+     * @param payload the encoded payload
+     * @return the frame to emit
+     */
+    public static JSONObject frame(UUID client, PacketChannel channel, byte[] payload) {
+        JSONObject frame = new JSONObject();
+        try {
+            frame.put("client", client.toString());
+            frame.put("packetChannel", channel.name());
+            frame.put("data", payload);
+        } catch (JSONException e) {
+            throw new IllegalStateException("Could not create a binary frame", e);
+        }
+        return frame;
+    }
+
+    private static void write(DataOutputStream out, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(0xc0);
+        } else if (element.isJsonObject()) {
+            writeObject(out, element.getAsJsonObject());
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            writeHeader(out, array.size(), 0x90, 0xdc, 0xdd);
+            for (JsonElement child : array) write(out, child);
+        } else {
+            writePrimitive(out, element.getAsJsonPrimitive());
+        }
+    }
+
+    private static void writeObject(DataOutputStream out, JsonObject object) throws IOException {
+        // payloads are a type and the payload itself
+        Set<Map.Entry<String, JsonElement>> entries = object.entrySet();
+        boolean isPayload = entries.size() == 2 && object.has("payload")
+                && object.has("type") && object.get("type").isJsonPrimitive();
+
+        writeHeader(out, entries.size(), 0x80, 0xde, 0xdf);
+        for (Map.Entry<String, JsonElement> entry : entries) {
+            writeString(out, entry.getKey());
+            if (isPayload && entry.getKey().equals("type")) {
+                String type = entry.getValue().getAsString();
+                writeString(out, type.substring(type.lastIndexOf('.') + 1));
+            } else {
+                write(out, entry.getValue());
+            }
+        }
+    }
+
+    private static void writePrimitive(DataOutputStream out, JsonPrimitive primitive) throws IOException {
+        if (primitive.isBoolean()) {
+            out.writeByte(primitive.getAsBoolean() ? 0xc3 : 0xc2);
+        } else if (primitive.isNumber()) {
+            writeNumber(out, primitive.getAsNumber());
+        } else {
+            String value = primitive.getAsString();
+            UUID uuid = asUuid(value);
+            if (uuid != null) {
+                out.writeByte(0xd8);
+                out.writeByte(UUID_EXTENSION);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static void writeNumber(DataOutputStream out, Number number) throws IOException {
+        double value = number.doubleValue();
+        if (value == Math.rint(value) && Math.abs(value) <= (1L << 53)) {
+            writeInteger(out, (long) value);
+        } else if ((float) value == value || Double.isNaN(value)) {
+            out.writeByte(0xca);
+            out.writeFloat((float) value);
+        } else {
+            out.writeByte(0xcb);
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeInteger(DataOutputStream out, long value) throws IOException {
+        if (value >= 0 && value <= 0x7f) {
+            out.writeByte((int) value);
+        } else if (value < 0 && value >= -32) {
+            out.writeByte(0xe0 | (int) (value & 0x1f));
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            out.writeByte(0xd0);
+            out.writeByte((int) value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            out.writeByte(0xd1);
+            out.writeShort((int) value);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            out.writeByte(0xd2);
+            out.writeInt((int) value);
+        } else {
+            out.writeByte(0xd3);
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < 32) {
+            out.writeByte(0xa0 | utf8.length);
+        } else if (utf8.length <= 0xff) {
+            out.writeByte(0xd9);
+            out.writeByte(utf8.length);
+        } else if (utf8.length <= 0xffff) {
+            out.writeByte(0xda);
+            out.writeShort(utf8.length);
+        } else {
+            out.writeByte(0xdb);
+            out.writeInt(utf8.length);
+        }
+        out.write(utf8);
+    }
+
+    // maps and arrays share their header layout, only the markers differ
+    private static void writeHeader(DataOutputStream out, int size, int fixMarker, int marker16, int marker32) throws IOException {
+        if (size < 16) {
+            out.writeByte(fixMarker | size);
+        } else if (size <= 0xffff) {
+            out.writeByte(marker16);
+            out.writeShort(size);
+        } else {
+            out.writeByte(marker32);
+            out.writeInt(size);
+        }
+    }
+
+    // only lower case UUIDs, so the client gets back exactly the same string
+    private static UUID asUuid(String value) {
+        if (value.length() != 36) return null;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) return null;
+        }
+        return UUID.fromString(value);
+    }
+
+}
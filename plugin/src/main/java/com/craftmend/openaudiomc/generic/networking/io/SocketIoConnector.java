@@ -7,11 +7,13 @@ import com.craftmend.openaudiomc.generic.authentication.objects.ServerKeySet;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.networking.certificate.CertificateHelper;
 import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
 import com.craftmend.openaudiomc.generic.networking.drivers.ClientDriver;
 import com.craftmend.openaudiomc.generic.networking.drivers.SystemDriver;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
 import com.craftmend.openaudiomc.generic.networking.interfaces.SocketDriver;
+import com.craftmend.openaudiomc.generic.networking.packets.client.ui.PacketClientBatch;
 import com.craftmend.openaudiomc.generic.networking.rest.RestRequest;
 import com.craftmend.openaudiomc.generic.networking.rest.endpoints.RestEndpoint;
 import com.craftmend.openaudiomc.generic.networking.rest.interfaces.ApiResponse;
@@ -33,7 +35,11 @@ import java.net.ProxySelector;
 import java.net.URISyntaxException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class SocketIoConnector {
 
@@ -49,8 +55,13 @@ public class SocketIoConnector {
             new ClientDriver(),
     };
 
+    // packets for the same client within a tick get sent as one frame
+    private static final int MAX_BATCH_SIZE = 64;
+    private final Queue<ClientConnection> waitingBatches = new ConcurrentLinkedQueue<>();
+
     public SocketIoConnector(ServerKeySet keySet) {
         this.keySet = keySet;
+        OpenAudioMc.getInstance().getTaskProvider().scheduleAsyncRepeatingTask(this::flushBatches, 1, 1);
     }
 
     public void setupConnection() {
@@ -169,7 +180,99 @@ public class SocketIoConnector {
         // only send the packet if the client is online, valid and the plugin is connected
         if (client.getIsConnected() && OpenAudioMc.getInstance().getStateService().getCurrentState().isConnected()) {
             packet.setClient(client.getOwnerUUID());
-            socket.emit("data", OpenAudioMc.getGson().toJson(packet));
+
+            if (isClientBound(packet) && client instanceof ClientConnection && ((ClientConnection) client).isBatchingPackets()) {
+                ClientConnection connection = (ClientConnection) client;
+                List<AbstractPacket> batch = connection.getOutboundBatch();
+                synchronized (batch) {
+                    batch.add(packet);
+                    if (batch.size() == 1) waitingBatches.add(connection);
+                    if (batch.size() >= MAX_BATCH_SIZE) flushBatch(connection, batch);
+                }
+                return;
+            }
+
+            // packets for the relay itself can't be batched
+            emitUnbatched(client, toFrame(client, packet));
         }
     }
+
+    public void broadcast(Collection<? extends Authenticatable> clients, AbstractPacket packet) {
+        if (!OpenAudioMc.getInstance().getStateService().getCurrentState().isConnected()) return;
+
+        // serialize without a target once, and put the target in front of it for every client
+        packet.setClient(null);
+        String body = null;
+        byte[] binary = null;
+        for (Authenticatable client : clients) {
+            if (!client.getIsConnected()) continue;
+
+            if (isBinary(client, packet)) {
+                if (binary == null) binary = BinaryPacketEncoder.encode(packet.getData());
+                emitUnbatched(client, BinaryPacketEncoder.frame(client.getOwnerUUID(), packet.getPacketChannel(), binary));
+                continue;
+            }
+
+            if (body == null) body = OpenAudioMc.getGson().toJson(packet).substring(1);
+            String separator = body.equals("}") ? "" : ",";
+            emitUnbatched(client, "{\"client\":\"" + client.getOwnerUUID() + "\"" + separator + body);
+        }
+    }
+
+    // sends a frame on its own, but after the packets that are already waiting for the client
+    private void emitUnbatched(Authenticatable client, Object frame) {
+        if (client instanceof ClientConnection && ((ClientConnection) client).isBatchingPackets()) {
+            ClientConnection connection = (ClientConnection) client;
+            List<AbstractPacket> batch = connection.getOutboundBatch();
+            synchronized (batch) {
+                flushBatch(connection, batch);
+                socket.emit("data", frame);
+            }
+            return;
+        }
+        socket.emit("data", frame);
+    }
+
+    private void flushBatches() {
+        boolean connected = OpenAudioMc.getInstance().getStateService().getCurrentState().isConnected();
+        ClientConnection connection;
+        while ((connection = waitingBatches.poll()) != null) {
+            List<AbstractPacket> batch = connection.getOutboundBatch();
+            synchronized (batch) {
+                if (connected && connection.getIsConnected()) {
+                    flushBatch(connection, batch);
+                } else {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    // has to be called while holding the lock of the batch
+    private void flushBatch(ClientConnection connection, List<AbstractPacket> batch) {
+        if (batch.isEmpty()) return;
+        UUID client = connection.getOwnerUUID();
+        // a single packet doesn't need the envelope, it's copied because packets can be shared between clients
+        AbstractPacket packet = batch.size() == 1
+                ? new AbstractPacket(batch.get(0).getData(), batch.get(0).getPacketChannel(), client)
+                : new PacketClientBatch(client, batch);
+        batch.clear();
+        socket.emit("data", toFrame(connection, packet));
+    }
+
+    // client bound packets go as binary to clients that can decode it, the relay itself only reads json
+    private Object toFrame(Authenticatable client, AbstractPacket packet) {
+        if (isBinary(client, packet)) {
+            return BinaryPacketEncoder.frame(packet.getClient(), packet.getPacketChannel(), BinaryPacketEncoder.encode(packet.getData()));
+        }
+        return OpenAudioMc.getGson().toJson(packet);
+    }
+
+    private boolean isBinary(Authenticatable client, AbstractPacket packet) {
+        return isClientBound(packet) && client instanceof ClientConnection && ((ClientConnection) client).isBinaryPackets();
+    }
+
+    private boolean isClientBound(AbstractPacket packet) {
+        return packet.getPacketChannel().name().startsWith("CLIENT_OUT");
+    }
 }
@@ -0,0 +1,23 @@
+package com.craftmend.openaudiomc.generic.networking.packets.client.ui;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.enums.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientPacketBatchPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class PacketClientBatch extends AbstractPacket {
+
+    public PacketClientBatch(UUID client, List<AbstractPacket> packets) {
+        super(new ClientPacketBatchPayload(toPayloads(packets)), PacketChannel.CLIENT_OUT_PACKET_BATCH, client);
+    }
+
+    private static List<AbstractPacketPayload> toPayloads(List<AbstractPacket> packets) {
+        List<AbstractPacketPayload> payloads = new ArrayList<>(packets.size());
+        for (AbstractPacket packet : packets) payloads.add(packet.getData());
+        return payloads;
+    }
+}
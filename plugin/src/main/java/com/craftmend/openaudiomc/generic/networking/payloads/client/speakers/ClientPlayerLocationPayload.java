@@ -2,7 +2,9 @@ package com.craftmend.openaudiomc.generic.networking.payloads.client.speakers;
 
 import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 
+@Getter
 @AllArgsConstructor
 public class ClientPlayerLocationPayload extends AbstractPacketPayload {
 
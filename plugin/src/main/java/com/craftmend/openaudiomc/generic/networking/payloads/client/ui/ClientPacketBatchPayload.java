@@ -0,0 +1,18 @@
+package com.craftmend.openaudiomc.generic.networking.payloads.client.ui;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientPacketBatchPayload extends AbstractPacketPayload {
+
+    // every payload keeps its own type, so the client can handle them one by one
+    private List<AbstractPacketPayload> packets;
+
+}
@@ -2,6 +2,8 @@ package com.craftmend.openaudiomc.generic.node.packets;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.addapter.PayloadRegistry;
 import com.craftmend.openaudiomc.api.velocitypluginmessageframework.PacketWriter;
 import com.craftmend.openaudiomc.api.velocitypluginmessageframework.StandardPacket;
 import lombok.AllArgsConstructor;
@@ -10,6 +12,7 @@ import lombok.NoArgsConstructor;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.UUID;
 
 @Getter
 @NoArgsConstructor
@@ -18,14 +21,29 @@ public class ForwardSocketPacket extends StandardPacket {
 
     private AbstractPacket payload;
 
+    // the channel goes as its payload id, so the payload doesn't need to carry its class name
     public void handle(DataInputStream dataInputStream) throws IOException {
-        ForwardSocketPacket self = OpenAudioMc.getGson().fromJson(dataInputStream.readUTF(), ForwardSocketPacket.class);
-        this.payload = self.getPayload();
+        PayloadRegistry.PayloadType type = PayloadRegistry.getType(dataInputStream.readShort());
+        if (type == null) throw new IOException("Received a forwarded packet with an unknown payload id");
+        UUID client = dataInputStream.readBoolean() ? new UUID(dataInputStream.readLong(), dataInputStream.readLong()) : null;
+        String json = dataInputStream.readUTF();
+
+        AbstractPacketPayload data = type.getPayloadClass() == null ? null : OpenAudioMc.getGson().fromJson(json, type.getPayloadClass());
+        this.payload = new AbstractPacket(data, type.getChannel(), client);
     }
 
     public PacketWriter write() throws IOException {
+        PayloadRegistry.PayloadType type = PayloadRegistry.getType(payload.getPacketChannel());
+        if (type == null) throw new IOException("Can't forward packets on " + payload.getPacketChannel() + ", it has no payload id");
+
         PacketWriter packetWriter = new PacketWriter(this);
-        packetWriter.writeUTF(OpenAudioMc.getGson().toJson(this));
+        packetWriter.writeShort(type.getId());
+        packetWriter.writeBoolean(payload.getClient() != null);
+        if (payload.getClient() != null) {
+            packetWriter.writeLong(payload.getClient().getMostSignificantBits());
+            packetWriter.writeLong(payload.getClient().getLeastSignificantBits());
+        }
+        packetWriter.writeUTF(payload.getData() == null ? "null" : OpenAudioMc.getGson().toJson(payload.getData(), payload.getData().getClass()));
         return packetWriter;
     }
 }
@@ -41,6 +41,16 @@ public enum StorageKey {
     SETTINGS_PRELOAD_SOUNDS(false, "options.preload-resources", StorageLocation.CONFIG_FILE),
     SETTINGS_GC_STRATEGY(false, "options.gc-strategy", StorageLocation.CONFIG_FILE),
     SETTINGS_VC_RADIUS(false, "options.voicechat-radius", StorageLocation.CONFIG_FILE),
+    SETTINGS_MOVEMENT_THRESHOLD(false, "options.movement-threshold", StorageLocation.CONFIG_FILE),
+    SETTINGS_LAZY_SPEAKERS(false, "options.lazy-speakers", StorageLocation.CONFIG_FILE),
+    SETTINGS_PERSISTENCE_FLUSH_INTERVAL(false, "options.persistence-flush-interval", StorageLocation.CONFIG_FILE),
+    SETTINGS_PERSISTENCE_FLUSH_SIZE(false, "options.persistence-flush-size", StorageLocation.CONFIG_FILE),
+    SETTINGS_SPEAKER_CLUSTER_DISTANCE(false, "options.speaker-cluster-distance", StorageLocation.CONFIG_FILE),
+    SETTINGS_NATIVE_REGION_INDEX(false, "options.native-region-index", StorageLocation.CONFIG_FILE),
+    SETTINGS_REGION_PREFETCH_SECONDS(false, "options.region-prefetch-seconds", StorageLocation.CONFIG_FILE),
+    SETTINGS_LOCATION_UPDATE_RATE(false, "options.location-update-rate", StorageLocation.CONFIG_FILE),
+    SETTINGS_BATCH_CLIENT_PACKETS(false, "options.batch-client-packets", StorageLocation.CONFIG_FILE),
+    SETTINGS_BINARY_CLIENT_PACKETS(false, "options.binary-client-packets", StorageLocation.CONFIG_FILE),
 
     DEBUG_LOG_STATE_CHANGES(false, "debug.log-state-changes", StorageLocation.DATA_FILE),
 
@@ -23,6 +23,14 @@ public interface ConfigurationImplementation {
     void set(StorageKey storageKey, Object value);
     void reloadConfig();
     void saveAll();
+
+    /**
+     * Save the data file without waiting for the disk, has to be called from the thread that changes the data file
+     */
+    default void saveAllAsync() {
+        saveAll();
+    }
+
     void overwriteConfigFile();
     boolean hasDataFile();
     boolean hasStorageKey(StorageKey storageKey);
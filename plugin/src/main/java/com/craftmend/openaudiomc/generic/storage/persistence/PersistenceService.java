@@ -0,0 +1,46 @@
+package com.craftmend.openaudiomc.generic.storage.persistence;
+
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.generic.platform.interfaces.TaskProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns the write-behind queues, flushes them periodically on an async thread
+ * and one last time (synchronously) when the plugin shuts down.
+ */
+public class PersistenceService {
+
+    private final List<WriteBehindQueue<?, ?>> queues = new CopyOnWriteArrayList<>();
+    private final int maxPending;
+
+    public PersistenceService(TaskProvider taskProvider) {
+        int interval = StorageKey.SETTINGS_PERSISTENCE_FLUSH_INTERVAL.getInt();
+        int maxPending = StorageKey.SETTINGS_PERSISTENCE_FLUSH_SIZE.getInt();
+
+        // fall back to sane defaults if the config has nonsense in it
+        if (interval < 1) interval = 5;
+        this.maxPending = maxPending < 1 ? 250 : maxPending;
+
+        taskProvider.scheduleAsyncRepeatingTask(this::flushAll, 20 * interval, 20 * interval);
+    }
+
+    /**
+     * @param name name used when logging failures
+     * @param writer writes a batch of changes
+     * @return a new queue, flushed by this service
+     */
+    public <K, V> WriteBehindQueue<K, V> createQueue(String name, WriteBehindQueue.Writer<K, V> writer) {
+        WriteBehindQueue<K, V> queue = new WriteBehindQueue<>(name, writer, maxPending);
+        queues.add(queue);
+        return queue;
+    }
+
+    public void flushAll() {
+        for (WriteBehindQueue<?, ?> queue : queues) {
+            queue.flush();
+        }
+    }
+
+}
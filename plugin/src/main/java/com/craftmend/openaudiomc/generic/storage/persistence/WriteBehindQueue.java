@@ -0,0 +1,109 @@
+package com.craftmend.openaudiomc.generic.storage.persistence;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Collects changes to persisted objects and writes them in batches, off the main thread.
+ *
+ * Changes are coalesced per key, so changing the same object ten times before a flush
+ * only results in a single write of its latest state (and a save followed by a delete in just the delete).
+ *
+ * @param <K> key type
+ * @param <V> value type, should be an immutable snapshot or a copy of the live object
+ */
+public class WriteBehindQueue<K, V> {
+
+    public interface Writer<K, V> {
+        /**
+         * @param saves objects to save or overwrite
+         * @param deletions keys of objects to delete, never overlapping with the saves
+         */
+        void write(Map<K, V> saves, Set<K> deletions) throws Exception;
+    }
+
+    @Getter private final String name;
+    private final Writer<K, V> writer;
+    private final int maxPending;
+
+    private Map<K, V> saves = new LinkedHashMap<>();
+    private Set<K> deletions = new LinkedHashSet<>();
+    private boolean isFlushRequested = false;
+
+    // only one batch gets written at the time, so they land in order
+    private final Object flushLock = new Object();
+
+    WriteBehindQueue(String name, Writer<K, V> writer, int maxPending) {
+        this.name = name;
+        this.writer = writer;
+        this.maxPending = maxPending;
+    }
+
+    public synchronized void save(K key, V value) {
+        deletions.remove(key);
+        saves.put(key, value);
+        onChange();
+    }
+
+    public synchronized void delete(K key) {
+        saves.remove(key);
+        deletions.add(key);
+        onChange();
+    }
+
+    public synchronized int getPendingCount() {
+        return saves.size() + deletions.size();
+    }
+
+    /**
+     * Write all pending changes on the current thread
+     *
+     * @return false if the changes couldn't be written, they'll be retried with the next flush
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            Map<K, V> batchSaves;
+            Set<K> batchDeletions;
+
+            synchronized (this) {
+                isFlushRequested = false;
+                if (saves.isEmpty() && deletions.isEmpty()) return true;
+
+                batchSaves = saves;
+                batchDeletions = deletions;
+                saves = new LinkedHashMap<>();
+                deletions = new LinkedHashSet<>();
+            }
+
+            try {
+                writer.write(batchSaves, batchDeletions);
+            } catch (Exception e) {
+                OpenAudioLogger.toConsole("Failed to write " + (batchSaves.size() + batchDeletions.size()) + " changes for " + name + ", they'll be retried with the next flush.");
+                e.printStackTrace();
+                requeue(batchSaves, batchDeletions);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private synchronized void requeue(Map<K, V> failedSaves, Set<K> failedDeletions) {
+        // newer changes win over the ones that failed
+        failedSaves.forEach((key, value) -> {
+            if (!saves.containsKey(key) && !deletions.contains(key)) saves.put(key, value);
+        });
+        for (K key : failedDeletions) {
+            if (!saves.containsKey(key)) deletions.add(key);
+        }
+    }
+
+    private void onChange() {
+        if (isFlushRequested || saves.size() + deletions.size() < maxPending) return;
+        isFlushRequested = true;
+        OpenAudioMc.getInstance().getTaskProvider().runAsync(this::flush);
+    }
+
+}
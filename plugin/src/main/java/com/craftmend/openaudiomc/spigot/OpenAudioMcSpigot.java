@@ -124,6 +124,9 @@ public final class OpenAudioMcSpigot extends JavaPlugin implements OpenAudioInvo
     public void onDisable() {
         OpenAudioLogger.toConsole("Shutting down");
         predictiveMediaService.onDisable();
+        if (speakerModule != null) speakerModule.onDisable();
+        if (playerModule != null) playerModule.onDisable();
+        if (regionModule != null) regionModule.onDisable();
         openAudioMc.disable();
         HandlerList.unregisterAll(this);
         OpenAudioLogger.toConsole("Stopped OpenAudioMc. Goodbye.");
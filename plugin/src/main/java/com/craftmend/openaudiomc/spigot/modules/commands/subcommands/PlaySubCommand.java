@@ -8,6 +8,8 @@ import com.craftmend.openaudiomc.generic.commands.interfaces.SubCommand;
 import com.craftmend.openaudiomc.generic.commands.objects.Argument;
 import com.craftmend.openaudiomc.generic.media.objects.Media;
 import com.craftmend.openaudiomc.generic.media.objects.MediaOptions;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientCreateMedia;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotPlayerSelector;
 import org.bukkit.Bukkit;
@@ -15,6 +17,9 @@ import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PlaySubCommand extends SubCommand {
 
     private final OpenAudioMcSpigot openAudioMcSpigot;
@@ -39,13 +44,13 @@ public class PlaySubCommand extends SubCommand {
 
         if (args.length == 2) {
             Media media = new Media(args[1]);
-            int affected = 0;
+            List<ClientConnection> clients = new ArrayList<>();
             for (Player player : new SpigotPlayerSelector(args[0]).getPlayers((CommandSender) sender.getOriginal())) {
                 SpigotConnection spigotConnection = openAudioMcSpigot.getPlayerModule().getClient(player);
-                if (spigotConnection.getClientConnection().isConnected()) affected++;
-                spigotConnection.getClientConnection().sendMedia(media);
+                if (spigotConnection.getClientConnection().prepareMedia(media)) clients.add(spigotConnection.getClientConnection());
             }
-            message(sender, ChatColor.GREEN + "Media created and requested to be played for " + affected + " clients");
+            OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientCreateMedia(media));
+            message(sender, ChatColor.GREEN + "Media created and requested to be played for " + clients.size() + " clients");
             return;
         }
 
@@ -60,10 +65,12 @@ public class PlaySubCommand extends SubCommand {
                 }
 
                 Media media = new Media(args[1]).applySettings(mediaOptions);
+                List<ClientConnection> clients = new ArrayList<>();
                 for (Player player : new SpigotPlayerSelector(args[0]).getPlayers((CommandSender) sender.getOriginal())) {
                     SpigotConnection spigotConnection = openAudioMcSpigot.getPlayerModule().getClient(player);
-                    spigotConnection.getClientConnection().sendMedia(media);
+                    if (spigotConnection.getClientConnection().prepareMedia(media)) clients.add(spigotConnection.getClientConnection());
                 }
+                OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientCreateMedia(media));
                 message(sender, ChatColor.GREEN + "Media (with arguments) created and requested to be played.");
             } catch (Exception e) {
                 message(sender, "Error. Invalid options. Please refer to the command guide.");
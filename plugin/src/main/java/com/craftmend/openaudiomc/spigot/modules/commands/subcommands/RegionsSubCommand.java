@@ -2,11 +2,9 @@ package com.craftmend.openaudiomc.spigot.modules.commands.subcommands;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.commands.interfaces.GenericExecutor;
-import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.generic.commands.interfaces.SubCommand;
 import com.craftmend.openaudiomc.generic.commands.objects.Argument;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
 import com.craftmend.openaudiomc.spigot.modules.regions.gui.RegionSelectionGui;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.TimedRegionProperties;
@@ -90,11 +88,10 @@ public class RegionsSubCommand extends SubCommand {
             openAudioMcSpigot.getRegionModule().registerRegion(args[1], new TimedRegionProperties(args[2], duration, args[1]));
             message(sender, ChatColor.GREEN + "The WorldGuard region with the id " + args[1] + " now has the sound " + args[2]);
 
-            openAudioMcSpigot.getRegionModule().forceUpdateRegions();
+            openAudioMcSpigot.getRegionModule().forceUpdateRegions(args[1]);
             return;
         }
 
-        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
         if (args[0].equalsIgnoreCase("create") && args.length == 3) {
             args[1] = args[1].toLowerCase();
 
@@ -104,18 +101,19 @@ public class RegionsSubCommand extends SubCommand {
                 return;
             }
 
-            config.setString(StorageLocation.DATA_FILE, "regions." + args[1], args[2]);
-            openAudioMcSpigot.getRegionModule().registerRegion(args[1], new RegionProperties(args[2], 100, 1000));
+            RegionProperties properties = new RegionProperties(args[2], 100, 1000);
+            openAudioMcSpigot.getRegionModule().registerRegion(args[1], properties);
+            openAudioMcSpigot.getRegionModule().saveRegion(args[1], properties);
             message(sender, ChatColor.GREEN + "The WorldGuard region with the id " + args[1] + " now has the sound " + args[2]);
-            openAudioMcSpigot.getRegionModule().forceUpdateRegions();
+            openAudioMcSpigot.getRegionModule().forceUpdateRegions(args[1]);
             return;
         }
 
         if (args[0].equalsIgnoreCase("delete") && args.length == 2) {
-            config.setString(StorageLocation.DATA_FILE, "regions." + args[1], null);
             openAudioMcSpigot.getRegionModule().removeRegion(args[1]);
+            openAudioMcSpigot.getRegionModule().deleteRegion(args[1]);
             message(sender, ChatColor.RED + "The WorldGuard region with the id " + args[1] + " no longer has a sound linked to it.");
-            openAudioMcSpigot.getRegionModule().forceUpdateRegions();
+            openAudioMcSpigot.getRegionModule().forceUpdateRegions(args[1]);
             return;
         }
 
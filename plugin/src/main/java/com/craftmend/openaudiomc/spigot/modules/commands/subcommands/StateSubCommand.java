@@ -7,6 +7,7 @@ import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.generic.commands.interfaces.SubCommand;
 import com.craftmend.openaudiomc.generic.commands.objects.Argument;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerTickScheduler;
 import net.md_5.bungee.protocol.packet.Chat;
 import org.bukkit.ChatColor;
 
@@ -32,6 +33,15 @@ public class StateSubCommand extends SubCommand {
         }
 
         message(sender, ChatColor.YELLOW + "Connected Clients: " + ChatColor.AQUA + "" + clients);
+
+        // slowest tick and skipped periods since the last time the state got shown
+        for (PlayerTickScheduler.Shard shard : OpenAudioMcSpigot.getInstance().getPlayerModule().getTickScheduler().getShards()) {
+            message(sender, ChatColor.YELLOW + "Tick Shard " + shard.getIndex() + ": " + ChatColor.AQUA + shard.getPlayers() + " players, "
+                    + formatMillis(shard.getLastTickNanos()) + " last, "
+                    + formatMillis(shard.takeMaxTickNanos()) + " max, "
+                    + shard.takeSkippedPeriods() + " skipped");
+        }
+
         if (OpenAudioMcSpigot.getInstance().getRegionModule() == null) {
             message(sender, ChatColor.YELLOW + "Loaded Audio Regions: " + ChatColor.RED + "Feature Disabled");
         } else {
@@ -45,7 +55,7 @@ public class StateSubCommand extends SubCommand {
 
         message(sender, getColor("YELLOW") + "Account Tags: " + getColor("AQUA") + "" + tags);
 
-        message(sender, ChatColor.YELLOW + "Loaded Speakers: " + ChatColor.AQUA + "" + OpenAudioMcSpigot.getInstance().getSpeakerModule().getSpeakerMap().size());
+        message(sender, ChatColor.YELLOW + "Loaded Speakers: " + ChatColor.AQUA + "" + OpenAudioMcSpigot.getInstance().getSpeakerModule().getSpeakerCount());
         message(sender, ChatColor.YELLOW + "Loaded Aliases: " + ChatColor.AQUA + "" + OpenAudioMcSpigot.getInstance().getAliasModule().getAliasMap().size());
         message(sender, ChatColor.YELLOW + "Detected Version: " + ChatColor.AQUA + "" + OpenAudioMcSpigot.getInstance().getServerService().getVersion());
         message(sender, ChatColor.YELLOW + "OpenAudioMc Provider: " + ChatColor.AQUA + "" + OpenAudioMc.getInstance().getPlatform());
@@ -53,4 +63,8 @@ public class StateSubCommand extends SubCommand {
         message(sender, ChatColor.YELLOW + "Time Offset: " + ChatColor.AQUA + "" + OpenAudioMc.getInstance().getTimeService().getOffset());
         message(sender, ChatColor.YELLOW + "Last time update: " + ChatColor.AQUA + "" + Duration.between(OpenAudioMc.getInstance().getTimeService().getLastUpdated(), Instant.now()).getSeconds() + " seconds ago");
     }
+
+    private String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000d);
+    }
 }
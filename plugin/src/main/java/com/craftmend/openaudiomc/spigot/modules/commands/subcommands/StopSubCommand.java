@@ -5,6 +5,7 @@ import com.craftmend.openaudiomc.generic.commands.interfaces.GenericExecutor;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.generic.commands.interfaces.SubCommand;
 import com.craftmend.openaudiomc.generic.commands.objects.Argument;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
 import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientDestroyMedia;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotPlayerSelector;
@@ -13,6 +14,9 @@ import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class StopSubCommand extends SubCommand {
 
     private OpenAudioMcSpigot openAudioMcSpigot;
@@ -36,25 +40,25 @@ public class StopSubCommand extends SubCommand {
         }
 
         if (args.length == 1) {
-            int affected = 0;
+            List<ClientConnection> clients = new ArrayList<>();
             for (Player player : new SpigotPlayerSelector(args[0]).getPlayers((CommandSender) sender.getOriginal())) {
                 SpigotConnection spigotConnection = openAudioMcSpigot.getPlayerModule().getClient(player);
-                if (spigotConnection.getClientConnection().isConnected()) affected++;
                 spigotConnection.getClientConnection().getOngoingMedia().clear();
-                OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientDestroyMedia(null));
+                if (spigotConnection.getClientConnection().isConnected()) clients.add(spigotConnection.getClientConnection());
             }
-            message(sender, ChatColor.GREEN + "Destroyed all normal sounds for " + affected + " clients");
+            OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientDestroyMedia(null));
+            message(sender, ChatColor.GREEN + "Destroyed all normal sounds for " + clients.size() + " clients");
             return;
         }
 
         if (args.length == 2) {
-            int affected = 0;
+            List<ClientConnection> clients = new ArrayList<>();
             for (Player player : new SpigotPlayerSelector(args[0]).getPlayers((CommandSender) sender.getOriginal())) {
                 SpigotConnection spigotConnection = openAudioMcSpigot.getPlayerModule().getClient(player);
-                if (spigotConnection.getClientConnection().isConnected()) affected++;
-                OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientDestroyMedia(args[1]));
+                if (spigotConnection.getClientConnection().isConnected()) clients.add(spigotConnection.getClientConnection());
             }
-            message(sender, net.md_5.bungee.api.ChatColor.GREEN + "Destroyed the sound" + args[1] + " for " + affected + " clients");
+            OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientDestroyMedia(args[1]));
+            message(sender, net.md_5.bungee.api.ChatColor.GREEN + "Destroyed the sound" + args[1] + " for " + clients.size() + " clients");
             return;
         }
 
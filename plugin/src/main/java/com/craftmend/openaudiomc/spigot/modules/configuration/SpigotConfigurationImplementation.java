@@ -1,5 +1,6 @@
 package com.craftmend.openaudiomc.spigot.modules.configuration;
 
+import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
@@ -15,6 +16,8 @@ import org.bukkit.event.world.WorldSaveEvent;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -27,6 +30,10 @@ public class SpigotConfigurationImplementation implements ConfigurationImplement
 
     private Map<StorageKey, String> cachedConfigStrings = new HashMap<>();
 
+    // async saves can finish out of order, so older ones get skipped once something newer is on disk
+    private volatile long dataVersion = 0;
+    private long writtenVersion = 0;
+
     public SpigotConfigurationImplementation(OpenAudioMcSpigot openAudioMcSpigot) {
         //save default
         openAudioMcSpigot.saveDefaultConfig();
@@ -263,9 +270,30 @@ public class SpigotConfigurationImplementation implements ConfigurationImplement
      * saves the data to the file, like new regions and speakers.
      */
     @Override
-    public void saveAll() {
+    public synchronized void saveAll() {
         try {
             dataConfig.save("plugins/OpenAudioMc/data.yml");
+            writtenVersion = dataVersion;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Only turns the data into yaml on the current (main) thread, the file gets written in the background
+     */
+    @Override
+    public void saveAllAsync() {
+        String contents = dataConfig.saveToString();
+        long version = ++dataVersion;
+        OpenAudioMc.getInstance().getTaskProvider().runAsync(() -> writeDataFile(contents, version));
+    }
+
+    private synchronized void writeDataFile(String contents, long version) {
+        if (version <= writtenVersion) return;
+        try {
+            Files.write(new File("plugins/OpenAudioMc/data.yml").toPath(), contents.getBytes(StandardCharsets.UTF_8));
+            writtenVersion = version;
         } catch (IOException e) {
             e.printStackTrace();
         }
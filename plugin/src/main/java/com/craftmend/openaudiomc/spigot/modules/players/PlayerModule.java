@@ -6,7 +6,9 @@ import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.listeners.PlayerConnectionListener;
 import com.craftmend.openaudiomc.spigot.modules.players.listeners.PlayerTeleportationListener;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerTickScheduler;
 
+import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -15,8 +17,10 @@ import java.util.*;
 public class PlayerModule {
 
     private Map<UUID, SpigotConnection> spigotConnectionMap = new HashMap<>();
+    @Getter private final PlayerTickScheduler tickScheduler;
 
     public PlayerModule(OpenAudioMcSpigot openAudioMcSpigot) {
+        this.tickScheduler = new PlayerTickScheduler(openAudioMcSpigot);
         openAudioMcSpigot.getServer().getPluginManager().registerEvents(new PlayerConnectionListener(), openAudioMcSpigot);
         openAudioMcSpigot.getServer().getPluginManager().registerEvents(new PlayerTeleportationListener(), openAudioMcSpigot);
     }
@@ -26,7 +30,9 @@ public class PlayerModule {
      */
     public void register(Player player) {
         ClientConnection clientConnection = OpenAudioMc.getInstance().getNetworkingService().register(player);
-        spigotConnectionMap.put(player.getUniqueId(), new SpigotConnection(player, clientConnection));
+        SpigotConnection spigotConnection = new SpigotConnection(player, clientConnection);
+        spigotConnectionMap.put(player.getUniqueId(), spigotConnection);
+        tickScheduler.add(spigotConnection);
     }
 
     /**
@@ -70,9 +76,14 @@ public class PlayerModule {
         if (spigotConnectionMap.containsKey(player.getUniqueId())) {
             SpigotConnection spigotConnection = spigotConnectionMap.get(player.getUniqueId());
             spigotConnection.onDestroy();
+            tickScheduler.remove(spigotConnection);
             spigotConnectionMap.remove(player.getUniqueId());
         }
 
         OpenAudioMc.getInstance().getNetworkingService().remove(player.getUniqueId());
     }
+
+    public void onDisable() {
+        tickScheduler.shutdown();
+    }
 }
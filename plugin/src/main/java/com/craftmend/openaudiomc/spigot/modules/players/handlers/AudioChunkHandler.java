@@ -4,15 +4,19 @@ import com.craftmend.openaudiomc.api.interfaces.AudioApi;
 import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientPreFetch;
 import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public class AudioChunkHandler implements ITickableHandler {
 
     private final Player player;
     private final SpigotConnection spigotConnection;
-    private boolean hasPrefetchedContent = false;
+    // everything the client got told to prefetch since the last time it was told to clear them
+    private final Set<String> prefetchedSources = new HashSet<>();
     private final AudioApi audioApi = AudioApi.getInstance();
 
     private String currentAudioChunkId = "";
@@ -22,25 +26,40 @@ public class AudioChunkHandler implements ITickableHandler {
         this.spigotConnection = spigotConnection;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         this.currentAudioChunkId = "";
+        this.prefetchedSources.clear();
     }
 
     @Override
-    public void tick() {
-        String newChunkId = audioApi.getWorldApi().getChunkId(player.getLocation());
+    public synchronized void tick() {
+        Location location = spigotConnection.getLocation();
+        if (location == null) return;
+        String newChunkId = audioApi.getWorldApi().getChunkId(location);
 
         if (!newChunkId.equals(currentAudioChunkId)) {
             currentAudioChunkId = newChunkId;
 
-            if (hasPrefetchedContent) spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(true));
-
-            Collection<String> media = audioApi.getWorldApi().getPredictedSources(player.getLocation());
-            hasPrefetchedContent = !media.isEmpty();
+            if (!prefetchedSources.isEmpty()) {
+                spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(true));
+                prefetchedSources.clear();
+            }
 
+            Collection<String> media = audioApi.getWorldApi().getPredictedSources(location);
             for (String s : media) {
-                spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(s));
+                prefetch(s);
             }
         }
     }
+
+    /**
+     * Let the client prefetch a source, if it didn't already get it
+     *
+     * @param source the source
+     */
+    public synchronized void prefetch(String source) {
+        if (prefetchedSources.add(source)) {
+            spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(source));
+        }
+    }
 }
@@ -1,76 +1,136 @@
 package com.craftmend.openaudiomc.spigot.modules.players.handlers;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import com.craftmend.openaudiomc.spigot.modules.regions.index.AudioRegionIndex;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
 import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientDestroyMedia;
-import lombok.AllArgsConstructor;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-@AllArgsConstructor
 public class RegionHandler implements ITickableHandler {
 
     private Player player;
     private SpigotConnection spigotConnection;
 
+    // how far ahead to predict where the player is walking to, 0 to not prefetch upcoming regions
+    private final double prefetchSeconds;
+    private Location lastLocation = null;
+    private long lastLocationAt = 0;
+
+    public RegionHandler(Player player, SpigotConnection spigotConnection) {
+        this.player = player;
+        this.spigotConnection = spigotConnection;
+
+        double seconds = 2;
+        try {
+            seconds = Double.parseDouble(StorageKey.SETTINGS_REGION_PREFETCH_SECONDS.getString());
+        } catch (NumberFormatException ignored) {
+            // not configured (properly), keep the default
+        }
+        this.prefetchSeconds = seconds;
+    }
+
     /**
      * update regions based on the players location
      */
     @Override
-    public void tick() {
+    public synchronized void tick() {
         if (OpenAudioMcSpigot.getInstance().getRegionModule() != null) {
             //regions are enabled
+            Location location = spigotConnection.getLocation();
+            if (location == null) return;
             List<IRegion> detectedRegions = OpenAudioMcSpigot.getInstance().getRegionModule()
-                    .getRegionAdapter().getAudioRegions(player.getLocation());
+                    .getRegionAdapter().getAudioRegions(location);
 
-            List<IRegion> enteredRegions = new ArrayList<>(detectedRegions);
-            enteredRegions.removeIf(t -> containsRegion(spigotConnection.getRegions(), t));
+            Map<String, IRegion> previousRegions = spigotConnection.getCurrentRegions();
+            Map<String, IRegion> currentRegions = new HashMap<>();
 
-            List<IRegion> leftRegions = new ArrayList<>(spigotConnection.getRegions());
-            leftRegions.removeIf(t -> containsRegion(detectedRegions, t));
-
-            List<IRegion> takeOverMedia = new ArrayList<>();
-            enteredRegions.forEach(entered -> {
-                if (!isPlayingRegion(entered)) {
-                    spigotConnection.getClientConnection().sendMedia(entered.getMedia());
-                } else {
-                    takeOverMedia.add(entered);
+            // entered regions start their media, unless a region with the same source was already playing it (and takes it over)
+            for (IRegion region : detectedRegions) {
+                String source = region.getProperties().getSource();
+                if (currentRegions.putIfAbsent(source, region) == null && !previousRegions.containsKey(source)) {
+                    spigotConnection.getClientConnection().sendMedia(region.getMedia());
                 }
-            });
+            }
 
-            leftRegions.forEach(exited -> {
-                if (!containsRegion(takeOverMedia, exited)) {
+            // left regions only stop if nothing took their source over
+            for (Map.Entry<String, IRegion> entry : previousRegions.entrySet()) {
+                if (!currentRegions.containsKey(entry.getKey())) {
+                    IRegion exited = entry.getValue();
                     OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientDestroyMedia(exited.getMedia().getMediaId(), exited.getProperties().getFadeTimeMs()));
                 }
-            });
+            }
+
+            spigotConnection.setCurrentRegions(currentRegions);
+            prefetchUpcomingRegions(location, currentRegions);
+        }
+    }
+
+    /**
+     * Let the client prefetch the sources of regions that the player is about to walk into,
+     * based on how they moved since the last tick
+     *
+     * @param location the current location
+     * @param currentRegions regions that are already playing, by source
+     */
+    private void prefetchUpcomingRegions(Location location, Map<String, IRegion> currentRegions) {
+        long now = System.currentTimeMillis();
+        Location previous = lastLocation;
+        long elapsed = now - lastLocationAt;
+        lastLocation = location;
+        lastLocationAt = now;
+
+        RegionModule regionModule = OpenAudioMcSpigot.getInstance().getRegionModule();
+        AudioRegionIndex index = regionModule.getRegionIndex();
+        if (index == null || prefetchSeconds <= 0) return;
+
+        // no telling where they're going after a teleport, or when they haven't moved in a while
+        if (previous == null || previous.getWorld() != location.getWorld() || elapsed <= 0 || elapsed > 1000) return;
+
+        double scale = (prefetchSeconds * 1000) / elapsed;
+        Set<String> upcoming = index.getRegionsAlong(location.getWorld().getName(),
+                location.getX(), location.getY(), location.getZ(),
+                (location.getX() - previous.getX()) * scale,
+                (location.getY() - previous.getY()) * scale,
+                (location.getZ() - previous.getZ()) * scale);
 
-            spigotConnection.setCurrentRegions(detectedRegions);
+        for (String id : upcoming) {
+            RegionProperties properties = regionModule.getRegionPropertiesMap().get(id);
+            if (properties == null || currentRegions.containsKey(properties.getSource())) continue;
+            spigotConnection.getAudioChunkHandler().prefetch(properties.getSource());
         }
     }
 
     @Override
-    public void reset() {
-        for (IRegion currentRegions : spigotConnection.getCurrentRegions()) {
+    public synchronized void reset() {
+        for (IRegion currentRegions : spigotConnection.getRegions()) {
             OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientDestroyMedia(currentRegions.getMedia().getMediaId()));
         }
 
-        spigotConnection.getRegions().clear();
+        spigotConnection.getCurrentRegions().clear();
     }
 
-    private boolean containsRegion(List<IRegion> list, IRegion query) {
-        for (IRegion r : list) if (query.getMedia().getSource().equals(r.getMedia().getSource())) return true;
-        return false;
-    }
-
-    private boolean isPlayingRegion(IRegion region) {
-        for (IRegion r : spigotConnection.getRegions())
-            if (region.getMedia().getSource().equals(r.getMedia().getSource())) return true;
-        return false;
+    /**
+     * @param id region id
+     * @return if the player is in the region, or was in it during the last tick
+     */
+    public boolean isAffectedBy(String id) {
+        for (IRegion region : spigotConnection.getRegions()) {
+            if (region.getId().equals(id)) return true;
+        }
+        Location location = spigotConnection.getLocation();
+        return location != null && OpenAudioMcSpigot.getInstance().getRegionModule().getRegionAdapter().isInRegion(location, id);
     }
 
 }
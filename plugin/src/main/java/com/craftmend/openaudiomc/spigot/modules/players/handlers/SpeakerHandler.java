@@ -1,11 +1,8 @@
 package com.craftmend.openaudiomc.spigot.modules.players.handlers;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
-import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
 import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientCreateSpeaker;
 import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientRemoveSpeaker;
-import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateLocation;
-import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.ClientSpeaker;
@@ -18,74 +15,91 @@ import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
-import lombok.AllArgsConstructor;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
-@AllArgsConstructor
 public class SpeakerHandler implements ITickableHandler {
 
     private final Player player;
     private final SpigotConnection spigotConnection;
-    private final List<AbstractPacket> packetQue = new ArrayList<>();
     private final SpeakerModule speakerModule = OpenAudioMcSpigot.getInstance().getSpeakerModule();
 
+    // speakers the client is currently playing, keyed by speaker id
+    // concurrent, since traced obstructions come back from the tracer workers
+    private final Map<UUID, ClientSpeaker> activeSpeakers = new ConcurrentHashMap<>();
+
+    // state for the allocation free pass that checks if anything changed at all,
+    // only touched while holding the handler lock since the handler gets ticked from more than one thread
+    private final Consumer<Speaker> speakerMatcher = this::matchSpeaker;
+    private int matchedSpeakers = 0;
+    private boolean hasChanges = false;
+
+    public SpeakerHandler(Player player, SpigotConnection spigotConnection) {
+        this.player = player;
+        this.spigotConnection = spigotConnection;
+    }
+
     /**
      * update speakers based on the players location
      */
     @Override
-    public void tick() {
-        List<ApplicableSpeaker> applicableSpeakers = new ArrayList<>(speakerModule.getCollector().getApplicableSpeakers(player.getLocation()));
-        List<ApplicableSpeaker> enteredSpeakers = new ArrayList<>(applicableSpeakers);
-        enteredSpeakers.removeIf(speaker -> containsSpeaker(spigotConnection.getSpeakers(), speaker));
-        List<ApplicableSpeaker> leftSpeakers = new ArrayList<>(spigotConnection.getSpeakers());
-        leftSpeakers.removeIf(speaker -> containsSpeaker(applicableSpeakers, speaker));
-
-        enteredSpeakers.forEach(entered -> {
-            if (!isPlayingSpeaker(entered)) {
-
-                int obstructions = 0;
-
-                // calculate obstructions?
-                // yea, but only if enabled for this speaker
-                if (ExtraSpeakerOptions.PROCESS_OBSTRUCTIONS.isEnabledFor(entered.getSpeaker())) {
-                    obstructions = speakerModule.getRayTracer().obstructionsBetweenLocations(player.getLocation(), entered.getLocation());
-                }
-
-                // overwrite sync flag
-                if (ExtraSpeakerOptions.IGNORE_SYNCHRONIZATION.isEnabledFor(entered.getSpeaker())) {
-                    entered.getSpeaker().getMedia().setDoPickup(false);
-                }
-
-                packetQue.add(new PacketClientCreateSpeaker(
-                        new ClientSpeakerCreatePayload(toClientSpeaker(entered, obstructions)))
-                );
+    public synchronized void tick() {
+        Location location = spigotConnection.getLocation();
+        if (location == null) return;
+
+        if (speakerModule.getCollector().isClustering()) {
+            // clusters don't map one to one on speakers, so they can't be matched without building them
+            updateSpeakers(location);
+        } else {
+            // first pass, only check if the speakers in range are the ones we're already playing
+            matchedSpeakers = 0;
+            hasChanges = false;
+            speakerModule.getCollector().forEachApplicableSpeaker(location, speakerMatcher);
+
+            if (hasChanges || matchedSpeakers != activeSpeakers.size()) {
+                updateSpeakers(location);
             }
-        });
-
-        // send deletion packets
-        leftSpeakers.forEach(left -> {
-            ClientSpeaker clientSpeaker = toClientSpeaker(left, -1);
-            OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientRemoveSpeaker(new ClientSpeakerDestroyPayload(clientSpeaker)));
-        });
-
-        spigotConnection.setCurrentSpeakers(applicableSpeakers);
+        }
 
         // update location if the client is listening to something
-        if (!applicableSpeakers.isEmpty() || spigotConnection.getClientConnection().getApiSpeakers() > 0) {
-
+        if (!activeSpeakers.isEmpty() || spigotConnection.getClientConnection().getApiSpeakers() > 0) {
             spigotConnection.getLocationFollowers().add(PlayerLocationFollower.SPEAKERS);
+        }
+    }
 
-            for (AbstractPacket abstractPacket : packetQue) {
-                OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), abstractPacket);
-            }
+    /**
+     * Forget all speakers, without telling the client. The next tick will re-create everything in range.
+     */
+    @Override
+    public synchronized void reset() {
+        activeSpeakers.clear();
+    }
+
+    /**
+     * @return speakers that are currently being played by the client
+     */
+    public Collection<ClientSpeaker> getActiveSpeakers() {
+        return Collections.unmodifiableCollection(activeSpeakers.values());
+    }
 
-            packetQue.clear();
+    /**
+     * Re-trace the obstructions of speakers whose surroundings changed, if the client is playing them
+     *
+     * @param speakers speakers with invalidated obstructions
+     */
+    public synchronized void refreshObstructions(Set<Speaker> speakers) {
+        Location location = spigotConnection.getLocation();
+        if (location == null) return;
+        for (Speaker speaker : speakers) {
+            ClientSpeaker active = activeSpeakers.get(speaker.getId());
+            if (active == null || !ExtraSpeakerOptions.PROCESS_OBSTRUCTIONS.isEnabledFor(speaker)) continue;
+            UUID id = speaker.getId();
+            speakerModule.getObstructionTracer().trace(speaker, location, traced -> onObstructionsTraced(id, active, traced));
         }
     }
 
@@ -103,13 +117,89 @@ public class SpeakerHandler implements ITickableHandler {
         )));
     }
 
-    private boolean isPlayingSpeaker(ApplicableSpeaker speaker) {
-        return containsSpeaker(spigotConnection.getSpeakers(), speaker);
+    private void matchSpeaker(Speaker speaker) {
+        ClientSpeaker active = activeSpeakers.get(speaker.getId());
+        if (active != null && active.getType() == speaker.getSpeakerType()) {
+            matchedSpeakers++;
+        } else {
+            hasChanges = true;
+        }
     }
 
+    private void updateSpeakers(Location location) {
+        Map<UUID, ApplicableSpeaker> applicableSpeakers = new HashMap<>();
+        for (ApplicableSpeaker applicableSpeaker : speakerModule.getCollector().getApplicableSpeakers(location)) {
+            applicableSpeakers.put(applicableSpeaker.getSpeaker().getId(), applicableSpeaker);
+        }
+
+        // send deletion packets, re-using the speaker we sent when it was created
+        Iterator<Map.Entry<UUID, ClientSpeaker>> activeIterator = activeSpeakers.entrySet().iterator();
+        while (activeIterator.hasNext()) {
+            Map.Entry<UUID, ClientSpeaker> active = activeIterator.next();
+            ApplicableSpeaker applicable = applicableSpeakers.get(active.getKey());
+
+            // a speaker that changed type counts as a different speaker
+            if (applicable == null || applicable.getSpeakerType() != active.getValue().getType()) {
+                OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientRemoveSpeaker(new ClientSpeakerDestroyPayload(active.getValue())));
+                activeIterator.remove();
+            }
+        }
+
+        for (ApplicableSpeaker entered : applicableSpeakers.values()) {
+            if (activeSpeakers.containsKey(entered.getSpeaker().getId())) continue;
+
+            int obstructions = 0;
+            boolean needsTrace = false;
+
+            // calculate obstructions?
+            // yea, but only if enabled for this speaker, and never from this thread
+            if (ExtraSpeakerOptions.PROCESS_OBSTRUCTIONS.isEnabledFor(entered.getSpeaker())) {
+                int cached = speakerModule.getObstructionCache().getCached(entered.getSpeaker(), location);
+                if (cached == -1) {
+                    needsTrace = true;
+                } else {
+                    obstructions = cached;
+                }
+            }
 
-    private boolean containsSpeaker(List<ApplicableSpeaker> list, ApplicableSpeaker speaker) {
-        return list.stream().anyMatch(currentSpeaker -> currentSpeaker.equals(speaker));
+            // overwrite sync flag
+            if (ExtraSpeakerOptions.IGNORE_SYNCHRONIZATION.isEnabledFor(entered.getSpeaker())) {
+                entered.getSpeaker().getMedia().setDoPickup(false);
+            }
+
+            ClientSpeaker clientSpeaker = toClientSpeaker(entered, obstructions);
+            activeSpeakers.put(entered.getSpeaker().getId(), clientSpeaker);
+            OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientCreateSpeaker(
+                    new ClientSpeakerCreatePayload(clientSpeaker))
+            );
+
+            // start without obstructions, and update the speaker once the trace is done
+            if (needsTrace) {
+                UUID id = entered.getSpeaker().getId();
+                speakerModule.getObstructionTracer().trace(entered.getSpeaker(), location, traced -> onObstructionsTraced(id, clientSpeaker, traced));
+            }
+        }
+    }
+
+    private void onObstructionsTraced(UUID id, ClientSpeaker traced, int obstructions) {
+        // only update if it's still the same speaker that's playing, and if there's actually something to update
+        if (activeSpeakers.get(id) != traced || traced.getObstructions() == obstructions) return;
+
+        // the client replaces speakers by id, so a create packet doubles as an update
+        ClientSpeaker updated = new ClientSpeaker(
+                traced.getLocation(),
+                traced.getType(),
+                traced.getId(),
+                traced.getSource(),
+                traced.getMaxDistance(),
+                traced.getStartInstant(),
+                obstructions
+        );
+        if (!activeSpeakers.replace(id, traced, updated)) return;
+
+        OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientCreateSpeaker(
+                new ClientSpeakerCreatePayload(updated))
+        );
     }
 
     private ClientSpeaker toClientSpeaker(ApplicableSpeaker speaker, int obstructions) {
@@ -0,0 +1,81 @@
+package com.craftmend.openaudiomc.spigot.modules.players.objects;
+
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import org.bukkit.Location;
+
+/**
+ * Decides when the client needs a new location for the players it follows.
+ * Locations are quantized to what the client gets to see (tenths of a block and whole degrees) as plain ints,
+ * updates are only sent when that changed, and no more often than the configured rate.
+ */
+public class LocationUpdateLimiter {
+
+    private final long minIntervalMs;
+
+    // latest quantized location, and the one that got sent last
+    private int x;
+    private int y;
+    private int z;
+    private int pitch;
+    private int yaw;
+    private int sentX;
+    private int sentY;
+    private int sentZ;
+    private int sentPitch;
+    private int sentYaw;
+    private boolean hasSent = false;
+    private boolean pending = false;
+    private long lastSentAt = 0;
+
+    public LocationUpdateLimiter() {
+        int rate = StorageKey.SETTINGS_LOCATION_UPDATE_RATE.getInt();
+        // 0 (or not configured) means no limit
+        this.minIntervalMs = rate <= 0 ? 0 : 1000 / rate;
+    }
+
+    /**
+     * @param location the new location, marks an update as pending if the quantized location changed
+     */
+    public synchronized void offer(Location location) {
+        x = toTenths(location.getX());
+        y = toTenths(location.getY());
+        z = toTenths(location.getZ());
+        pitch = (int) location.getPitch();
+        yaw = (int) location.getYaw();
+
+        pending = !hasSent || x != sentX || y != sentY || z != sentZ || pitch != sentPitch || yaw != sentYaw;
+    }
+
+    /**
+     * @param now current time in ms
+     * @return the payload to send if there's a pending update and the rate allows it, null otherwise
+     */
+    public synchronized ClientPlayerLocationPayload poll(long now) {
+        if (!pending || now - lastSentAt < minIntervalMs) return null;
+
+        pending = false;
+        hasSent = true;
+        lastSentAt = now;
+        sentX = x;
+        sentY = y;
+        sentZ = z;
+        sentPitch = pitch;
+        sentYaw = yaw;
+        return new ClientPlayerLocationPayload(x / 10d, y / 10d, z / 10d, pitch, yaw);
+    }
+
+    /**
+     * Forget what the client has, so the next location always gets sent
+     */
+    public synchronized void reset() {
+        hasSent = false;
+        pending = false;
+    }
+
+    private static int toTenths(double value) {
+        // half up, away from zero, like the client always got
+        return (int) (value < 0 ? -Math.round(-value * 10) : Math.round(value * 10));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.craftmend.openaudiomc.spigot.modules.players.objects;
+
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Decides if a location change is worth re-evaluating speakers and regions for.
+ * Only crossing a block boundary or moving further than the configured threshold counts,
+ * so looking around (yaw/pitch changes) doesn't trigger a full recompute.
+ * Checked by the player's tick shard, but it can get reset from other threads.
+ */
+public class MovementGate {
+
+    private final double thresholdSquared;
+
+    private World lastWorld = null;
+    private int lastBlockX;
+    private int lastBlockY;
+    private int lastBlockZ;
+    private double lastX;
+    private double lastY;
+    private double lastZ;
+
+    public MovementGate() {
+        double threshold = 0.5;
+        try {
+            threshold = Double.parseDouble(StorageKey.SETTINGS_MOVEMENT_THRESHOLD.getString());
+        } catch (NumberFormatException ignored) {
+            // not configured (properly), keep the default
+        }
+        this.thresholdSquared = threshold * threshold;
+    }
+
+    /**
+     * @param location the new location
+     * @return true if the location moved enough to re-evaluate, it then becomes the new reference point
+     */
+    public synchronized boolean shouldEvaluate(Location location) {
+        boolean crossedBlock = lastWorld != location.getWorld()
+                || lastBlockX != location.getBlockX()
+                || lastBlockY != location.getBlockY()
+                || lastBlockZ != location.getBlockZ();
+
+        if (!crossedBlock) {
+            double dx = location.getX() - lastX;
+            double dy = location.getY() - lastY;
+            double dz = location.getZ() - lastZ;
+            if ((dx * dx) + (dy * dy) + (dz * dz) <= thresholdSquared) return false;
+        }
+
+        lastWorld = location.getWorld();
+        lastBlockX = location.getBlockX();
+        lastBlockY = location.getBlockY();
+        lastBlockZ = location.getBlockZ();
+        lastX = location.getX();
+        lastY = location.getY();
+        lastZ = location.getZ();
+        return true;
+    }
+
+    /**
+     * Forget the last location, forcing the next check to pass
+     */
+    public synchronized void reset() {
+        lastWorld = null;
+    }
+
+}
@@ -5,6 +5,7 @@ import com.craftmend.openaudiomc.api.impl.event.events.ClientRequestVoiceEvent;
 import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
 import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateLocation;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.ClientSpeaker;
 import com.craftmend.openaudiomc.generic.platform.Platform;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.generic.media.objects.Media;
@@ -14,9 +15,9 @@ import com.craftmend.openaudiomc.spigot.modules.players.handlers.AudioChunkHandl
 import com.craftmend.openaudiomc.spigot.modules.players.handlers.InitializeTrains;
 import com.craftmend.openaudiomc.spigot.modules.players.handlers.RegionHandler;
 import com.craftmend.openaudiomc.spigot.modules.players.handlers.SpeakerHandler;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerSnapshot;
 import com.craftmend.openaudiomc.spigot.modules.players.events.ClientConnectEvent;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
-import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
 
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.SpeakerSettings;
 import com.craftmend.openaudiomc.spigot.services.utils.DataWatcher;
@@ -26,8 +27,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 public class SpigotConnection {
@@ -35,27 +34,25 @@ public class SpigotConnection {
     @Getter
     private ClientConnection clientConnection;
 
-    // optional regions and speakers
+    // optional regions and speakers, regions are keyed by the source they play
     @Getter
     @Setter
-    private List<IRegion> currentRegions = new ArrayList<>();
-    @Setter
-    private List<ApplicableSpeaker> currentSpeakers = new ArrayList<>();
+    private Map<String, IRegion> currentRegions = new HashMap<>();
 
-    // data watcher that watches for changes in the location, every 2 ticks.
+    // data watcher that watches for changes in the location, ticked every 2 ticks by the player tick scheduler
     @Getter
-    private DataWatcher<Location> locationDataWatcher = new DataWatcher<>(
-            OpenAudioMcSpigot.getInstance(),
-            false,
-            2
-    );
+    private DataWatcher<Location> locationDataWatcher = new DataWatcher<>();
 
     // Speaker and region handles. Region handler can be null if the feature is disabled
     @Getter private SpeakerHandler speakerHandler;
     @Getter private RegionHandler regionHandler;
     @Getter private AudioChunkHandler audioChunkHandler;
     @Getter private Set<PlayerLocationFollower> locationFollowers = new HashSet<>();
-    private Player player;
+    private final MovementGate movementGate = new MovementGate();
+    private final LocationUpdateLimiter locationUpdateLimiter = new LocationUpdateLimiter();
+    @Getter private Player player;
+    // slot in the latest player snapshot, set by the tick scheduler
+    @Getter @Setter private volatile int snapshotSlot = -1;
 
     //plugin data
     @Setter
@@ -80,27 +77,32 @@ public class SpigotConnection {
             // if the client is not connected, then dont do shit, they wont hear it anyway
             if (!this.clientConnection.getIsConnected()) return;
 
-            this.audioChunkHandler.tick();
+            // only re-evaluate the world when the player actually moved, not when they just looked around
+            if (movementGate.shouldEvaluate(updatedLocation)) {
+                this.audioChunkHandler.tick();
 
-            // tick the regions, if the regions are enabled
-            if (this.regionHandler != null) this.regionHandler.tick();
+                // tick the regions, if the regions are enabled
+                if (this.regionHandler != null) this.regionHandler.tick();
 
-            // tick the speakers to force them to update
-            this.speakerHandler.tick();
+                // tick the speakers to force them to update
+                this.speakerHandler.tick();
+            }
 
             // update location if wanted
-            tickLocationFollowers();
+            tickLocationFollowers(updatedLocation);
         });
 
         // the feeder, how the data watcher gets its new fed data
-        locationDataWatcher.setFeeder(player::getLocation);
+        locationDataWatcher.setFeeder(this::getLocation);
 
         // set handlers
         clientConnection.addOnConnectHandler(() -> {
             audioChunkHandler.reset();
             currentRegions.clear();
-            currentSpeakers.clear();
-            locationDataWatcher.getCallback().accept(player.getLocation());
+            speakerHandler.reset();
+            locationUpdateLimiter.reset();
+            // let the tick shard re-evaluate everything, instead of doing it from the network thread
+            forceLocationUpdate();
             Bukkit.getScheduler().runTask(OpenAudioMcSpigot.getInstance(), () -> Bukkit.getServer().getPluginManager().callEvent(new ClientConnectEvent(player, this)));
         });
 
@@ -113,18 +115,18 @@ public class SpigotConnection {
         });
     }
 
-    private void tickLocationFollowers() {
-        if (!locationFollowers.isEmpty()) {
-            Location location = player.getLocation();
-            ClientPlayerLocationPayload locationPayload = new ClientPlayerLocationPayload(
-                    round(location.getX(), 1),
-                    round(location.getY(), 1),
-                    round(location.getZ(), 1),
-                    (int) location.getPitch(),
-                    (int) location.getYaw()
-            );
+    /**
+     * Tick the location watcher, and send location updates that the rate limit held back before
+     */
+    public void tick() {
+        locationDataWatcher.tick();
+        if (!locationFollowers.isEmpty() && clientConnection.getIsConnected()) sendLocationUpdate();
+    }
 
-            OpenAudioMc.getInstance().getNetworkingService().send(getClientConnection(), new PacketClientUpdateLocation(locationPayload));
+    private void tickLocationFollowers(Location location) {
+        if (!locationFollowers.isEmpty()) {
+            locationUpdateLimiter.offer(location);
+            sendLocationUpdate();
 
             if (locationFollowers.contains(PlayerLocationFollower.PROXIMITY_VOICE_CHAT)) {
                 clientConnection.getClientRtcManager().onLocationTick(location);
@@ -132,6 +134,37 @@ public class SpigotConnection {
         }
     }
 
+    private void sendLocationUpdate() {
+        ClientPlayerLocationPayload locationPayload = locationUpdateLimiter.poll(System.currentTimeMillis());
+        if (locationPayload != null) {
+            OpenAudioMc.getInstance().getNetworkingService().send(getClientConnection(), new PacketClientUpdateLocation(locationPayload));
+        }
+    }
+
+    /**
+     * Force the handlers to re-evaluate the current location on the next watcher tick,
+     * even if the player didn't move
+     */
+    public void forceLocationUpdate() {
+        movementGate.reset();
+        locationDataWatcher.forceTicK();
+    }
+
+    /**
+     * @return where the player was at the start of this tick, safe to use from any thread.
+     *         Shared with everything else that reads it, so it must not be modified.
+     *         Null when they joined after the last snapshot and this isn't called from the main thread
+     */
+    public Location getLocation() {
+        PlayerSnapshot snapshot = OpenAudioMcSpigot.getInstance().getPlayerModule().getTickScheduler().getSnapshot();
+        int slot = snapshot.indexOf(this);
+        if (slot == -1) {
+            // they joined after the last snapshot, the player itself can only be asked from the main thread
+            return Bukkit.isPrimaryThread() ? player.getLocation() : null;
+        }
+        return snapshot.getLocation(slot);
+    }
+
     /**
      * Called before the Client object is destroyed
      */
@@ -143,15 +176,15 @@ public class SpigotConnection {
     /**
      * @return regions that the player is a part of
      */
-    public List<IRegion> getRegions() {
-        return currentRegions;
+    public Collection<IRegion> getRegions() {
+        return currentRegions.values();
     }
 
     /**
      * @return speakers in range of the player
      */
-    public List<ApplicableSpeaker> getSpeakers() {
-        return currentSpeakers;
+    public Collection<ClientSpeaker> getSpeakers() {
+        return speakerHandler.getActiveSpeakers();
     }
 
     /**
@@ -160,12 +193,4 @@ public class SpigotConnection {
     public void playMedia(Media media) {
         clientConnection.sendMedia(media);
     }
-
-    private double round(double value, int places) {
-        if (places < 0) throw new IllegalArgumentException();
-
-        BigDecimal bd = BigDecimal.valueOf(value);
-        bd = bd.setScale(places, RoundingMode.HALF_UP);
-        return bd.doubleValue();
-    }
 }
@@ -0,0 +1,146 @@
+package com.craftmend.openaudiomc.spigot.modules.players.ticking;
+
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Where all players were at the start of a tick, captured on the main thread.
+ *
+ * Everything is kept in flat arrays indexed by slot, and a snapshot doesn't change anymore once it's published,
+ * so the async handlers can read it without touching players or worlds.
+ */
+public class PlayerSnapshot {
+
+    public static final PlayerSnapshot EMPTY = new PlayerSnapshot(new SpigotConnection[0]);
+
+    private final SpigotConnection[] connections;
+    private final World[] worlds;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final float[] yaw;
+    private final float[] pitch;
+    private final boolean[] inVehicle;
+    private final boolean[] dead;
+
+    // created when a slot is first asked for as a location, shared by everything that reads it
+    private final AtomicReferenceArray<Location> locations;
+
+    PlayerSnapshot(SpigotConnection[] connections) {
+        int size = connections.length;
+        this.connections = connections;
+        this.worlds = new World[size];
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+        this.yaw = new float[size];
+        this.pitch = new float[size];
+        this.inVehicle = new boolean[size];
+        this.dead = new boolean[size];
+        this.locations = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Copy the state of a player, only from the main thread and before the snapshot is published
+     *
+     * @param slot slot of the player
+     * @param player the player
+     * @param buffer location to copy into, so capturing doesn't allocate one for every player
+     */
+    void capture(int slot, Player player, Location buffer) {
+        player.getLocation(buffer);
+        worlds[slot] = buffer.getWorld();
+        x[slot] = buffer.getX();
+        y[slot] = buffer.getY();
+        z[slot] = buffer.getZ();
+        yaw[slot] = buffer.getYaw();
+        pitch[slot] = buffer.getPitch();
+        inVehicle[slot] = player.isInsideVehicle();
+        dead[slot] = player.isDead();
+    }
+
+    public int size() {
+        return connections.length;
+    }
+
+    /**
+     * @param connection a connection
+     * @return its slot, or -1 if it wasn't online yet when this snapshot got captured
+     */
+    public int indexOf(SpigotConnection connection) {
+        int slot = connection.getSnapshotSlot();
+        if (slot >= 0 && slot < connections.length && connections[slot] == connection) return slot;
+
+        // the slot is from a newer snapshot, players joined or left since this one
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] == connection) return i;
+        }
+        return -1;
+    }
+
+    public SpigotConnection getConnection(int slot) {
+        return connections[slot];
+    }
+
+    public World getWorld(int slot) {
+        return worlds[slot];
+    }
+
+    public double getX(int slot) {
+        return x[slot];
+    }
+
+    public double getY(int slot) {
+        return y[slot];
+    }
+
+    public double getZ(int slot) {
+        return z[slot];
+    }
+
+    public float getYaw(int slot) {
+        return yaw[slot];
+    }
+
+    public float getPitch(int slot) {
+        return pitch[slot];
+    }
+
+    public boolean isInVehicle(int slot) {
+        return inVehicle[slot];
+    }
+
+    public boolean isDead(int slot) {
+        return dead[slot];
+    }
+
+    /**
+     * @param first slot of a player
+     * @param second slot of another player
+     * @return the squared distance between them, ignoring their worlds
+     */
+    public double distanceSquared(int first, int second) {
+        double dx = x[first] - x[second];
+        double dy = y[first] - y[second];
+        double dz = z[first] - z[second];
+        return (dx * dx) + (dy * dy) + (dz * dz);
+    }
+
+    /**
+     * @param slot slot of the player
+     * @return the location of the player, the same instance for everyone that asks so it must not be modified
+     */
+    public Location getLocation(int slot) {
+        Location location = locations.get(slot);
+        if (location == null) {
+            location = new Location(worlds[slot], x[slot], y[slot], z[slot], yaw[slot], pitch[slot]);
+            if (!locations.compareAndSet(slot, null, location)) location = locations.get(slot);
+        }
+        return location;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.craftmend.openaudiomc.spigot.modules.players.ticking;
+
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ticks the location watchers of all connections from a single repeating task, instead of every connection
+ * having a scheduler task of its own.
+ *
+ * Every tick the main thread captures a {@link PlayerSnapshot} of all connections, which the async handlers read
+ * instead of the players themselves. Every connection gets assigned to one shard per worker when it joins and stays there,
+ * so a connection is never ticked by two workers at once. Every period each shard is handed to a fixed worker pool,
+ * a shard that's still busy with the previous period skips a period instead of piling up.
+ */
+public class PlayerTickScheduler {
+
+    // same interval the per player watchers used to have
+    private static final int PERIOD_TICKS = 2;
+
+    private final ExecutorService workers;
+    private final List<Shard> shards;
+    private final int task;
+    private final int captureTask;
+    private volatile SpigotConnection[] connections = new SpigotConnection[0];
+    // swapped for a new one every tick, the workers might still be reading the previous one
+    @Getter private volatile PlayerSnapshot snapshot = PlayerSnapshot.EMPTY;
+    private final Location captureBuffer = new Location(null, 0, 0, 0);
+
+    public PlayerTickScheduler(JavaPlugin plugin) {
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "OpenAudioMc-PlayerTicker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Shard[] shards = new Shard[threads];
+        for (int i = 0; i < threads; i++) shards[i] = new Shard(i);
+        this.shards = Collections.unmodifiableList(Arrays.asList(shards));
+
+        this.captureTask = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::captureSnapshot, 1, 1);
+        this.task = Bukkit.getScheduler().scheduleAsyncRepeatingTask(plugin, this::tick, PERIOD_TICKS, PERIOD_TICKS);
+    }
+
+    public synchronized void add(SpigotConnection connection) {
+        connections = append(connections, connection);
+
+        // the shard with the least players
+        Shard target = shards.get(0);
+        for (Shard shard : shards) {
+            if (shard.connections.length < target.connections.length) target = shard;
+        }
+        target.connections = append(target.connections, connection);
+    }
+
+    public synchronized void remove(SpigotConnection connection) {
+        connections = without(connections, connection);
+        for (Shard shard : shards) {
+            shard.connections = without(shard.connections, connection);
+        }
+    }
+
+    /**
+     * @return timings of every shard, the last tick is from the last period they ran in,
+     *         the rest is collected until it gets taken for a report
+     */
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Capture where everyone is right now, has to be called from the main thread
+     */
+    public void captureSnapshot() {
+        SpigotConnection[] captured = connections;
+        PlayerSnapshot next = new PlayerSnapshot(captured);
+        for (int slot = 0; slot < captured.length; slot++) {
+            captured[slot].setSnapshotSlot(slot);
+            next.capture(slot, captured[slot].getPlayer(), captureBuffer);
+        }
+        snapshot = next;
+    }
+
+    public void shutdown() {
+        Bukkit.getScheduler().cancelTask(captureTask);
+        Bukkit.getScheduler().cancelTask(task);
+        workers.shutdownNow();
+    }
+
+    private void tick() {
+        for (Shard shard : shards) {
+            SpigotConnection[] assigned = shard.connections;
+            if (assigned.length == 0) {
+                shard.players = 0;
+                continue;
+            }
+
+            if (!shard.busy.compareAndSet(false, true)) {
+                shard.skippedPeriods.incrementAndGet();
+                continue;
+            }
+
+            try {
+                workers.execute(() -> shard.run(assigned));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                shard.busy.set(false);
+            }
+        }
+    }
+
+    private static SpigotConnection[] append(SpigotConnection[] connections, SpigotConnection connection) {
+        SpigotConnection[] updated = Arrays.copyOf(connections, connections.length + 1);
+        updated[connections.length] = connection;
+        return updated;
+    }
+
+    private static SpigotConnection[] without(SpigotConnection[] connections, SpigotConnection connection) {
+        return Arrays.stream(connections)
+                .filter(other -> other != connection)
+                .toArray(SpigotConnection[]::new);
+    }
+
+    public static class Shard {
+
+        @Getter private final int index;
+        @Getter private volatile int players = 0;
+        @Getter private volatile long lastTickNanos = 0;
+        private final AtomicLong maxTickNanos = new AtomicLong();
+        // periods that got skipped because the shard was still busy
+        private final AtomicLong skippedPeriods = new AtomicLong();
+        private final AtomicBoolean busy = new AtomicBoolean(false);
+        // only changed while holding the scheduler lock
+        private volatile SpigotConnection[] connections = new SpigotConnection[0];
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return the slowest tick since the last time this got called
+         */
+        public long takeMaxTickNanos() {
+            return maxTickNanos.getAndSet(0);
+        }
+
+        /**
+         * @return periods that got skipped since the last time this got called
+         */
+        public long takeSkippedPeriods() {
+            return skippedPeriods.getAndSet(0);
+        }
+
+        private void run(SpigotConnection[] assigned) {
+            long start = System.nanoTime();
+            try {
+                for (SpigotConnection connection : assigned) {
+                    try {
+                        connection.tick();
+                    } catch (Exception e) {
+                        OpenAudioLogger.toConsole("Failed to tick a player: " + e);
+                        e.printStackTrace();
+                    }
+                }
+            } finally {
+                long took = System.nanoTime() - start;
+                players = assigned.length;
+                lastTickNanos = took;
+                maxTickNanos.accumulateAndGet(took, Math::max);
+                busy.set(false);
+            }
+        }
+
+    }
+
+}
@@ -7,17 +7,16 @@ import com.craftmend.openaudiomc.generic.networking.client.objects.player.Client
 import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
 import com.craftmend.openaudiomc.generic.networking.interfaces.INetworkingEvents;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.interfaces.SourceHolder;
-import com.craftmend.openaudiomc.generic.player.SpigotPlayerAdapter;
 import com.craftmend.openaudiomc.generic.utils.HeatMap;
 
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.ChunkMapSerializer;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.SerializedAudioChunk;
 import com.craftmend.openaudiomc.spigot.modules.show.objects.Show;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.entity.Player;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -81,10 +80,13 @@ public class PredictiveMediaModule {
                 if (packet.getData() instanceof SourceHolder) {
                     String source = ((SourceHolder) packet.getData()).getSource();
                     ClientConnection client = (ClientConnection) target;
-                    Player player = ((SpigotPlayerAdapter) client.getPlayer()).getPlayer();
+                    SpigotConnection spigotConnection = OpenAudioMcSpigot.getInstance().getPlayerModule().getClient(client.getOwnerUUID());
+                    if (spigotConnection == null) return;
+                    Location location = spigotConnection.getLocation();
+                    if (location == null) return;
 
                     // bump the source for the players chunk chunk
-                    chunkTracker.get(locationToAudioChunkId(player.getLocation())).getContext().bump(source);
+                    chunkTracker.get(locationToAudioChunkId(location)).getContext().bump(source);
                 }
             }
         };
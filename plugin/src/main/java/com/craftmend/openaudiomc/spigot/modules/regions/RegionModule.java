@@ -4,19 +4,26 @@ import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
+import com.craftmend.openaudiomc.generic.storage.persistence.WriteBehindQueue;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.regions.adapters.LegacyRegionAdapter;
 import com.craftmend.openaudiomc.spigot.modules.regions.adapters.ModernRegionAdapter;
+import com.craftmend.openaudiomc.spigot.modules.regions.cache.AudioRegionCache;
+import com.craftmend.openaudiomc.spigot.modules.regions.index.AudioRegionIndex;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionMedia;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.TimedRegionProperties;
 import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
 
 import lombok.Getter;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class RegionModule {
 
@@ -24,6 +31,15 @@ public class RegionModule {
     private Map<String, RegionProperties> regionPropertiesMap = new HashMap<>();
     private Map<String, RegionMedia> regionMediaMap = new HashMap<>();
     @Getter private AbstractRegionAdapter regionAdapter;
+    @Getter private final AudioRegionCache regionCache = new AudioRegionCache();
+    // null unless enabled and supported by the adapter
+    @Getter private AudioRegionIndex regionIndex;
+
+    // region changes get written to the data file in the background
+    private final WriteBehindQueue<String, RegionProperties> persistenceQueue =
+            OpenAudioMc.getInstance().getPersistenceService().createQueue("regions", this::writeRegions);
+    // batches that were handed to the main thread, but didn't make it into the data file yet
+    private final Queue<Runnable> unappliedWrites = new ConcurrentLinkedQueue<>();
 
     public RegionModule(OpenAudioMcSpigot openAudioMcSpigot, @Nullable AbstractRegionAdapter customAdapter) {
         OpenAudioLogger.toConsole("Turns out you have WorldGuard installed! enabling regions and the region tasks..");
@@ -50,12 +66,44 @@ public class RegionModule {
             }
         }
 
-        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+        if (StorageKey.SETTINGS_NATIVE_REGION_INDEX.getBoolean()) {
+            if (regionAdapter.supportsRegionShapes()) {
+                OpenAudioLogger.toConsole("Enabling the native region index");
+                regionIndex = new AudioRegionIndex();
+                // worldguard doesn't tell us when regions get redefined, or when worlds load, so re-copy them every now and then
+                OpenAudioMc.getInstance().getTaskProvider().scheduleSyncRepeatingTask(this::rebuildIndex, 20 * 60, 20 * 60);
+            } else {
+                OpenAudioLogger.toConsole("The native region index isn't supported with this version of WorldGuard, using the normal region queries instead.");
+            }
+        }
+
+        // worldguard can be read off the main thread, the data file and the regions are handled on it again
+        OpenAudioMc.getInstance().getTaskProvider().runAsync(this::loadRegions);
+
+        OpenAudioMc.getInstance().getMediaModule().getResetTriggers().add(() -> {
+            regionMediaMap.clear();
+        });
+    }
+
+    private void loadRegions() {
+        // one pass over all worldguard regions, instead of one for every audio region
+        Map<String, Set<String>> regionWorlds = regionAdapter.indexRegionNames();
+
+        // the data file is only touched from the main thread
+        OpenAudioMc.getInstance().getTaskProvider().runSync(() -> {
+            ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+            int loaded = 0;
+
+            for (String region : config.getStringSet("regions", StorageLocation.DATA_FILE)) {
+                // before we actually add it, we should check if the WG region still exists, to lesser load
+                boolean exists = regionWorlds == null
+                        ? regionAdapter.doesRegionExist(region.toLowerCase())
+                        : regionWorlds.containsKey(region.toLowerCase());
+                if (!exists) continue;
+
+                // regions that got created while we were loading are newer than the ones in the file
+                if (regionPropertiesMap.containsKey(region)) continue;
 
-        //load config
-        for (String region : config.getStringSet("regions", StorageLocation.DATA_FILE)) {
-            // before we actually add it, we should check if the WG region still exists, to lesser load
-            if (regionAdapter.doesRegionExist(region.toLowerCase())) {
                 String source = config.getStringFromPath("regions." + region, StorageLocation.DATA_FILE);
 
                 int volume = config.getIntFromPath("regionsvolume." + region, StorageLocation.DATA_FILE);
@@ -68,22 +116,109 @@ public class RegionModule {
                     fadeTimeMs = 1000;
                 }
 
-                RegionProperties properties = new RegionProperties(source, volume, fadeTimeMs);
-                registerRegion(region, properties);
+                registerRegion(region, new RegionProperties(source, volume, fadeTimeMs));
+                loaded++;
             }
-        }
+            OpenAudioLogger.toConsole("Loaded " + loaded + " audio regions.");
 
-        OpenAudioMc.getInstance().getMediaModule().getResetTriggers().add(() -> {
-            regionMediaMap.clear();
+            // players that are already online (after a reload) won't move into their regions
+            for (SpigotConnection client : OpenAudioMcSpigot.getInstance().getPlayerModule().getClients()) {
+                client.forceLocationUpdate();
+            }
         });
     }
 
     public void registerRegion(String id, RegionProperties propperties) {
         regionPropertiesMap.put(id, propperties);
+        if (regionIndex != null) regionIndex.put(id, regionAdapter.getRegionShapes(id));
+        regionCache.invalidate();
     }
 
     public void removeRegion(String id) {
         regionPropertiesMap.remove(id);
+        if (regionIndex != null) regionIndex.remove(id);
+        regionCache.invalidate();
+    }
+
+    /**
+     * Copy the shapes of all audio regions from WorldGuard again
+     */
+    public void rebuildIndex() {
+        if (regionIndex == null) return;
+        for (String id : new ArrayList<>(regionPropertiesMap.keySet())) {
+            regionIndex.put(id, regionAdapter.getRegionShapes(id));
+        }
+        regionCache.invalidate();
+    }
+
+    /**
+     * Queue the properties of a region to be saved
+     *
+     * @param id region id
+     * @param properties the properties, copied right away
+     */
+    public void saveRegion(String id, RegionProperties properties) {
+        // temporary regions only live until they expire
+        if (properties instanceof TimedRegionProperties) return;
+        persistenceQueue.save(id, new RegionProperties(properties.getSource(), properties.getVolume(), properties.getFadeTimeMs()));
+    }
+
+    public void deleteRegion(String id) {
+        persistenceQueue.delete(id);
+    }
+
+    private void writeRegions(Map<String, RegionProperties> saves, Set<String> deletions) {
+        // the data file isn't thread safe, so it only gets changed on the main thread and just written to disk in the background
+        unappliedWrites.add(() -> applyRegions(saves, deletions));
+        if (Bukkit.isPrimaryThread()) {
+            // the last flush when shutting down, there won't be a background thread to write it on
+            applyPendingWrites();
+            OpenAudioMc.getInstance().getConfiguration().saveAll();
+        } else {
+            OpenAudioMc.getInstance().getTaskProvider().runSync(() -> {
+                if (applyPendingWrites()) OpenAudioMc.getInstance().getConfiguration().saveAllAsync();
+            });
+        }
+    }
+
+    /**
+     * Apply the batches that are waiting for the main thread, in the order they were flushed in.
+     * A batch only leaves the queue once it's applied, so one that fails gets tried again with the next flush.
+     *
+     * @return if anything got applied
+     */
+    private boolean applyPendingWrites() {
+        boolean applied = false;
+        Runnable write;
+        while ((write = unappliedWrites.peek()) != null) {
+            write.run();
+            unappliedWrites.poll();
+            applied = true;
+        }
+        return applied;
+    }
+
+    /**
+     * Apply region changes that were still waiting for a main thread tick, has to run before the data file gets saved
+     */
+    public void onDisable() {
+        applyPendingWrites();
+    }
+
+    private void applyRegions(Map<String, RegionProperties> saves, Set<String> deletions) {
+        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+
+        for (String id : deletions) {
+            config.setString(StorageLocation.DATA_FILE, "regions." + id, null);
+            config.setString(StorageLocation.DATA_FILE, "regionsvolume." + id, null);
+            config.setString(StorageLocation.DATA_FILE, "regionsfadetime." + id, null);
+        }
+
+        saves.forEach((id, properties) -> {
+            config.setString(StorageLocation.DATA_FILE, "regions." + id, properties.getSource());
+            config.setInt(StorageLocation.DATA_FILE, "regionsvolume." + id, properties.getVolume());
+            config.setInt(StorageLocation.DATA_FILE, "regionsfadetime." + id, properties.getFadeTimeMs());
+        });
     }
 
     public void forceUpdateRegions() {
@@ -92,6 +227,17 @@ public class RegionModule {
         }
     }
 
+    /**
+     * Only update the players that are in a region, or just were
+     *
+     * @param id the region that got changed
+     */
+    public void forceUpdateRegions(String id) {
+        for (SpigotConnection client : OpenAudioMcSpigot.getInstance().getPlayerModule().getClients()) {
+            if (client.getRegionHandler() != null && client.getRegionHandler().isAffectedBy(id)) client.getRegionHandler().tick();
+        }
+    }
+
     public RegionMedia getRegionMedia(String source, int volume, int fadeTimeMs) {
         if (regionMediaMap.containsKey(source)) return regionMediaMap.get(source);
         RegionMedia regionMedia = new RegionMedia(source, volume, fadeTimeMs);
@@ -102,5 +248,7 @@ public class RegionModule {
     public void removeRegionMedia(String id, String source) {
         regionMediaMap.remove(source);
         regionPropertiesMap.remove(id);
+        if (regionIndex != null) regionIndex.remove(id);
+        regionCache.invalidate();
     }
 }
@@ -6,11 +6,14 @@ import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.ApiRegion;
 import com.sk89q.worldguard.bukkit.WGBukkit;
+import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -59,4 +62,25 @@ public class LegacyRegionAdapter extends AbstractRegionAdapter {
         }
         return false;
     }
+
+    @Override
+    public boolean isInRegion(Location location, String name) {
+        RegionManager manager = WGBukkit.getRegionManager(location.getWorld());
+        if (manager == null) return false;
+        ProtectedRegion region = manager.getRegion(name);
+        return region != null && region.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public Map<String, Set<String>> indexRegionNames() {
+        Map<String, Set<String>> index = new HashMap<>();
+        for (World world : Bukkit.getWorlds()) {
+            RegionManager manager = WGBukkit.getRegionManager(world);
+            if (manager == null) continue;
+            for (String id : manager.getRegions().keySet()) {
+                index.computeIfAbsent(id.toLowerCase(), name -> new HashSet<>()).add(world.getName());
+            }
+        }
+        return index;
+    }
 }
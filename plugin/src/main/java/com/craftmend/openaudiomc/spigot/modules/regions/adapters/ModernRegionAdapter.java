@@ -5,7 +5,10 @@ import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.ApiRegion;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionShape;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.managers.RegionManager;
@@ -16,6 +19,10 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -61,13 +68,71 @@ public class ModernRegionAdapter extends AbstractRegionAdapter {
         RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
         for (World world : Bukkit.getWorlds()) {
             RegionManager manager = container.get(BukkitAdapter.adapt(world));
-            if (manager != null) {
-                for (Map.Entry<String, ProtectedRegion> entry : container.get(BukkitAdapter.adapt(world)).getRegions().entrySet()) {
-                    String id = entry.getKey();
-                    if (name.equals(id)) return true;
-                }
-            }
+            if (manager != null && manager.getRegions().containsKey(name)) return true;
         }
         return false;
     }
+
+    @Override
+    public boolean isInRegion(Location location, String name) {
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(location.getWorld()));
+        if (manager == null) return false;
+        ProtectedRegion region = manager.getRegion(name);
+        return region != null && region.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public Map<String, Set<String>> indexRegionNames() {
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        Map<String, Set<String>> index = new HashMap<>();
+        for (World world : Bukkit.getWorlds()) {
+            RegionManager manager = container.get(BukkitAdapter.adapt(world));
+            if (manager == null) continue;
+            for (String id : manager.getRegions().keySet()) {
+                index.computeIfAbsent(id.toLowerCase(), name -> new HashSet<>()).add(world.getName());
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean supportsRegionShapes() {
+        return true;
+    }
+
+    @Override
+    public List<RegionShape> getRegionShapes(String name) {
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        List<RegionShape> shapes = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            RegionManager manager = container.get(BukkitAdapter.adapt(world));
+            if (manager == null) continue;
+            ProtectedRegion region = manager.getRegion(name);
+            if (region != null) shapes.add(toShape(world.getName(), region));
+        }
+        return shapes;
+    }
+
+    private RegionShape toShape(String world, ProtectedRegion region) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+
+        switch (region.getType()) {
+            case GLOBAL:
+                return RegionShape.global(world, region.getPriority());
+            case POLYGON:
+                List<BlockVector2> points = region.getPoints();
+                int[] pointsX = new int[points.size()];
+                int[] pointsZ = new int[points.size()];
+                for (int i = 0; i < points.size(); i++) {
+                    pointsX[i] = points.get(i).getBlockX();
+                    pointsZ[i] = points.get(i).getBlockZ();
+                }
+                return RegionShape.polygon(world, region.getPriority(), min.getBlockY(), max.getBlockY(), pointsX, pointsZ);
+            default:
+                return RegionShape.cuboid(world, region.getPriority(),
+                        min.getBlockX(), min.getBlockY(), min.getBlockZ(),
+                        max.getBlockX(), max.getBlockY(), max.getBlockZ());
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.craftmend.openaudiomc.spigot.modules.regions.cache;
+
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionCacheKey;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import lombok.AllArgsConstructor;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of the audio regions at a block, so players that stand still or walk around
+ * within a block don't query WorldGuard every tick.
+ *
+ * Entries get dropped when audio regions change. WorldGuard doesn't tell us when its own regions get
+ * redefined, so entries also expire after a second to pick those changes up.
+ */
+public class AudioRegionCache {
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final long TTL_MS = 1000;
+
+    private final Map<RegionCacheKey, CachedRegions> cache = new LinkedHashMap<RegionCacheKey, CachedRegions>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RegionCacheKey, CachedRegions> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // bumped on every invalidation, so lookups that started before it can't store outdated regions
+    private int generation = 0;
+
+    /**
+     * @param location the location
+     * @return a copy of the cached audio regions, or null if they have to be resolved
+     */
+    public synchronized List<IRegion> get(Location location) {
+        RegionCacheKey key = toKey(location);
+        CachedRegions cached = cache.get(key);
+        if (cached == null) return null;
+
+        if (System.currentTimeMillis() - cached.resolvedAt > TTL_MS) {
+            cache.remove(key);
+            return null;
+        }
+
+        return new ArrayList<>(cached.regions);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(Location, List, int)} once the regions are resolved
+     */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @param location the location the regions were resolved for
+     * @param regions the audio regions, copied
+     * @param generation generation from before the regions were resolved
+     */
+    public synchronized void put(Location location, List<IRegion> regions, int generation) {
+        if (generation != this.generation) return;
+        cache.put(toKey(location), new CachedRegions(new ArrayList<>(regions), System.currentTimeMillis()));
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        cache.clear();
+    }
+
+    private RegionCacheKey toKey(Location location) {
+        return new RegionCacheKey(
+                location.getWorld().getName(),
+                MappedLocation.toBlockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ())
+        );
+    }
+
+    @AllArgsConstructor
+    private static class CachedRegions {
+        private final List<IRegion> regions;
+        private final long resolvedAt;
+    }
+
+}
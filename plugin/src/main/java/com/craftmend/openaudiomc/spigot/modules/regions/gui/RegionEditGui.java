@@ -1,8 +1,6 @@
 package com.craftmend.openaudiomc.spigot.modules.regions.gui;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
-import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
@@ -50,9 +48,8 @@ public class RegionEditGui extends Menu {
                 )
                 .onClick((player, item) -> {
                     if (fadeTime == region.getProperties().getFadeTimeMs()) return;
-                    ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
-                    config.setInt(StorageLocation.DATA_FILE, "regionsfadetime." + region.getId().toString(), fadeTime);
                     region.getProperties().setFadeTimeMs(fadeTime);
+                    OpenAudioMcSpigot.getInstance().getRegionModule().saveRegion(region.getId(), region.getProperties());
 
                     player.sendMessage(OpenAudioMc.getInstance().getCommandModule().getCommandPrefix() + ChatColor.GREEN + "Updated region fadetime to " + fadeTime);
 
@@ -77,9 +74,8 @@ public class RegionEditGui extends Menu {
                 )
                 .onClick((player, item) -> {
                     if (volume == region.getVolume()) return;
-                    ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
-                    config.setInt(StorageLocation.DATA_FILE, "regionsvolume." + region.getId().toString(), volume);
                     region.setVolume(volume);
+                    OpenAudioMcSpigot.getInstance().getRegionModule().saveRegion(region.getId(), region.getProperties());
 
                     player.sendMessage(OpenAudioMc.getInstance().getCommandModule().getCommandPrefix() + ChatColor.GREEN + "Updated region volume to " + volume);
 
@@ -0,0 +1,235 @@
+package com.craftmend.openaudiomc.spigot.modules.regions.index;
+
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.ApiRegion;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionShape;
+import lombok.AllArgsConstructor;
+import org.bukkit.Location;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * Per world index of the shapes of audio regions, bucketed by 16 block cells.
+ *
+ * Only regions that have audio get indexed, so a lookup doesn't have to go past all the protection
+ * regions that WorldGuard would check. Regions that cover too many cells are kept in a list per world instead,
+ * and global regions are only returned when no other audio region is at the location.
+ * Lookups happen from the async location watchers while mutations happen on the main thread.
+ */
+public class AudioRegionIndex {
+
+    private static final int CELL_SHIFT = 4;
+    // 32 by 32 cells, everything bigger is cheaper to just check
+    private static final int MAX_CELLS = 1024;
+
+    private final Map<String, List<IndexedRegion>> regionsById = new HashMap<>();
+    private final Map<String, Map<Long, Set<IndexedRegion>>> worlds = new ConcurrentHashMap<>();
+    private final Map<String, List<IndexedRegion>> largeRegions = new ConcurrentHashMap<>();
+    private final Map<String, List<IndexedRegion>> globalRegions = new ConcurrentHashMap<>();
+
+    /**
+     * Index a region, replacing the shapes it had before
+     *
+     * @param id region id
+     * @param shapes its shapes, one per world that it exists in
+     */
+    public synchronized void put(String id, List<RegionShape> shapes) {
+        List<IndexedRegion> indexed = new ArrayList<>(shapes.size());
+        for (RegionShape shape : shapes) {
+            IndexedRegion region = new IndexedRegion(id, shape);
+            indexed.add(region);
+
+            if (shape.isGlobal()) {
+                globalRegions.computeIfAbsent(shape.getWorld(), world -> new CopyOnWriteArrayList<>()).add(region);
+            } else if (countCells(shape) > MAX_CELLS) {
+                largeRegions.computeIfAbsent(shape.getWorld(), world -> new CopyOnWriteArrayList<>()).add(region);
+            } else {
+                Map<Long, Set<IndexedRegion>> cells = worlds.computeIfAbsent(shape.getWorld(), world -> new ConcurrentHashMap<>());
+                forEachCell(shape, key -> cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(region));
+            }
+        }
+
+        // only drop the old shapes once the new ones are in, so lookups never see the region disappear
+        List<IndexedRegion> replaced = regionsById.put(id, indexed);
+        if (replaced != null) unindex(replaced);
+    }
+
+    public synchronized void remove(String id) {
+        List<IndexedRegion> indexed = regionsById.remove(id);
+        if (indexed != null) unindex(indexed);
+    }
+
+    public synchronized void clear() {
+        regionsById.clear();
+        worlds.clear();
+        largeRegions.clear();
+        globalRegions.clear();
+    }
+
+    /**
+     * @param location the location
+     * @return audio regions at the location, or the global audio regions if there are none
+     */
+    public Set<ApiRegion> getRegionsAt(Location location) {
+        String world = location.getWorld().getName();
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+
+        // keyed by id, a region that's being replaced can briefly be in the index twice
+        Map<String, ApiRegion> regions = new HashMap<>();
+
+        Map<Long, Set<IndexedRegion>> cells = worlds.get(world);
+        if (cells != null) {
+            Set<IndexedRegion> cell = cells.get(cellKey(x >> CELL_SHIFT, z >> CELL_SHIFT));
+            if (cell != null) {
+                for (IndexedRegion region : cell) {
+                    if (region.shape.contains(x, y, z)) regions.putIfAbsent(region.id, region);
+                }
+            }
+        }
+
+        for (IndexedRegion region : largeRegions.getOrDefault(world, Collections.emptyList())) {
+            if (region.shape.contains(x, y, z)) regions.putIfAbsent(region.id, region);
+        }
+
+        if (regions.isEmpty()) {
+            for (IndexedRegion region : globalRegions.getOrDefault(world, Collections.emptyList())) {
+                regions.putIfAbsent(region.id, region);
+            }
+        }
+
+        return new HashSet<>(regions.values());
+    }
+
+    /**
+     * Find the audio regions that something moving in a straight line would pass through.
+     * Polygons are treated as their bounding box, which is close enough for a prediction.
+     *
+     * @param world world name
+     * @param x start x
+     * @param y start y
+     * @param z start z
+     * @param motionX distance moved along x
+     * @param motionY distance moved along y
+     * @param motionZ distance moved along z
+     * @return ids of the regions on the path, global regions are left out
+     */
+    public Set<String> getRegionsAlong(String world, double x, double y, double z, double motionX, double motionY, double motionZ) {
+        Set<String> ids = new HashSet<>();
+
+        Map<Long, Set<IndexedRegion>> cells = worlds.get(world);
+        if (cells != null) {
+            int minCellX = (int) Math.floor(Math.min(x, x + motionX)) >> CELL_SHIFT;
+            int maxCellX = (int) Math.floor(Math.max(x, x + motionX)) >> CELL_SHIFT;
+            int minCellZ = (int) Math.floor(Math.min(z, z + motionZ)) >> CELL_SHIFT;
+            int maxCellZ = (int) Math.floor(Math.max(z, z + motionZ)) >> CELL_SHIFT;
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    Set<IndexedRegion> cell = cells.get(cellKey(cellX, cellZ));
+                    if (cell == null) continue;
+                    for (IndexedRegion region : cell) {
+                        if (!ids.contains(region.id) && crosses(region.shape, x, y, z, motionX, motionY, motionZ)) ids.add(region.id);
+                    }
+                }
+            }
+        }
+
+        for (IndexedRegion region : largeRegions.getOrDefault(world, Collections.emptyList())) {
+            if (crosses(region.shape, x, y, z, motionX, motionY, motionZ)) ids.add(region.id);
+        }
+
+        return ids;
+    }
+
+    private static boolean crosses(RegionShape shape, double x, double y, double z, double motionX, double motionY, double motionZ) {
+        double[] start = {x, y, z};
+        double[] motion = {motionX, motionY, motionZ};
+        // blocks are inclusive, so the far side of the bounds is one further
+        double[] min = {shape.getMinX(), shape.getMinY(), shape.getMinZ()};
+        double[] max = {shape.getMaxX() + 1, shape.getMaxY() + 1, shape.getMaxZ() + 1};
+
+        // the part of the path (from 0 to 1) that's within the bounds on every axis so far
+        double enter = 0;
+        double exit = 1;
+        for (int axis = 0; axis < 3; axis++) {
+            if (motion[axis] == 0) {
+                if (start[axis] < min[axis] || start[axis] >= max[axis]) return false;
+                continue;
+            }
+
+            double first = (min[axis] - start[axis]) / motion[axis];
+            double second = (max[axis] - start[axis]) / motion[axis];
+            enter = Math.max(enter, Math.min(first, second));
+            exit = Math.min(exit, Math.max(first, second));
+            if (enter > exit) return false;
+        }
+        return true;
+    }
+
+    private void unindex(List<IndexedRegion> indexed) {
+        for (IndexedRegion region : indexed) {
+            RegionShape shape = region.shape;
+            if (shape.isGlobal()) {
+                removeFromList(globalRegions, shape.getWorld(), region);
+            } else if (countCells(shape) > MAX_CELLS) {
+                removeFromList(largeRegions, shape.getWorld(), region);
+            } else {
+                Map<Long, Set<IndexedRegion>> cells = worlds.get(shape.getWorld());
+                if (cells == null) continue;
+                forEachCell(shape, key -> {
+                    Set<IndexedRegion> cell = cells.get(key);
+                    if (cell == null) return;
+                    cell.remove(region);
+                    if (cell.isEmpty()) cells.remove(key);
+                });
+            }
+        }
+    }
+
+    private void removeFromList(Map<String, List<IndexedRegion>> lists, String world, IndexedRegion region) {
+        List<IndexedRegion> list = lists.get(world);
+        if (list == null) return;
+        list.remove(region);
+        if (list.isEmpty()) lists.remove(world);
+    }
+
+    private long countCells(RegionShape shape) {
+        long width = (shape.getMaxX() >> CELL_SHIFT) - (shape.getMinX() >> CELL_SHIFT) + 1;
+        long depth = (shape.getMaxZ() >> CELL_SHIFT) - (shape.getMinZ() >> CELL_SHIFT) + 1;
+        return width * depth;
+    }
+
+    private void forEachCell(RegionShape shape, LongConsumer consumer) {
+        for (int cellX = shape.getMinX() >> CELL_SHIFT; cellX <= shape.getMaxX() >> CELL_SHIFT; cellX++) {
+            for (int cellZ = shape.getMinZ() >> CELL_SHIFT; cellZ <= shape.getMaxZ() >> CELL_SHIFT; cellZ++) {
+                consumer.accept(cellKey(cellX, cellZ));
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    @AllArgsConstructor
+    private static class IndexedRegion implements ApiRegion {
+
+        private final String id;
+        private final RegionShape shape;
+
+        @Override
+        public int getPriority() {
+            return shape.getPriority();
+        }
+
+        @Override
+        public String getName() {
+            return id;
+        }
+
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.craftmend.openaudiomc.spigot.modules.regions.interfaces;
 
 import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import com.craftmend.openaudiomc.spigot.modules.regions.index.AudioRegionIndex;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.Region;
+import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionShape;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
@@ -19,10 +21,61 @@ public abstract class AbstractRegionAdapter {
     public abstract Set<ApiRegion> getRegionsAtLocation(Location location);
     public abstract boolean doesRegionExist(String name);
 
+    /**
+     * List all regions in one go, which is a lot cheaper than calling {@link #doesRegionExist(String)} for every region
+     *
+     * @return lower cased region names, mapped to the worlds that have a region with that name. Null if this adapter can't list them
+     */
+    public Map<String, Set<String>> indexRegionNames() {
+        return null;
+    }
+
+    /**
+     * @param location the location
+     * @param name region name
+     * @return if the location is inside the region, regardless of priority
+     */
+    public boolean isInRegion(Location location, String name) {
+        for (ApiRegion region : getRegionsAtLocation(location)) {
+            if (region.getName().equalsIgnoreCase(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return if this adapter can copy region shapes, which is needed for the native region index
+     */
+    public boolean supportsRegionShapes() {
+        return false;
+    }
+
+    /**
+     * @param name region name
+     * @return the shape of the region in every world that has a region with this name, empty if this adapter can't read shapes
+     */
+    public List<RegionShape> getRegionShapes(String name) {
+        return Collections.emptyList();
+    }
+
     public List<IRegion> getAudioRegions(Location location) {
+        List<IRegion> cached = regionModule.getRegionCache().get(location);
+        if (cached != null) return cached;
+
+        int generation = regionModule.getRegionCache().getGeneration();
+        List<IRegion> regions = resolveAudioRegions(location);
+        regionModule.getRegionCache().put(location, regions, generation);
+        return regions;
+    }
+
+    private List<IRegion> resolveAudioRegions(Location location) {
         List<IRegion> regions = new ArrayList<>();
         int prio = 0;
-        for (ApiRegion r : getRegionsAtLocation(location)) {
+
+        // the index only knows audio regions, so there's no need to ask worldguard about everything else
+        AudioRegionIndex index = regionModule.getRegionIndex();
+        Set<ApiRegion> candidates = index == null ? getRegionsAtLocation(location) : index.getRegionsAt(location);
+
+        for (ApiRegion r : candidates) {
             if (regionModule.getRegionPropertiesMap().get(r.getName()) == null) continue;
             if (r.getPriority() > prio) {
                 prio = r.getPriority();
@@ -0,0 +1,13 @@
+package com.craftmend.openaudiomc.spigot.modules.regions.objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RegionCacheKey {
+
+    private String world;
+    private long block;
+
+}
@@ -3,20 +3,29 @@ package com.craftmend.openaudiomc.spigot.modules.regions.objects;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.generic.media.objects.Media;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
-@AllArgsConstructor
 public class RegionProperties {
 
+    // interned, players key their regions by it so equal sources are usually the same instance
     private String source;
     private int volume;
     private int fadeTimeMs;
 
+    public RegionProperties(String source, int volume, int fadeTimeMs) {
+        setSource(source);
+        this.volume = volume;
+        this.fadeTimeMs = fadeTimeMs;
+    }
+
+    public void setSource(String source) {
+        this.source = source == null ? null : source.intern();
+    }
+
     public void updateMedia(String regionName) {
         OpenAudioMcSpigot.getInstance().getRegionModule().removeRegionMedia(regionName, source);
-        OpenAudioMcSpigot.getInstance().getRegionModule().getRegionPropertiesMap().put(regionName, this);
+        OpenAudioMcSpigot.getInstance().getRegionModule().registerRegion(regionName, this);
     }
 
     public Media getMedia() {
@@ -0,0 +1,120 @@
+package com.craftmend.openaudiomc.spigot.modules.regions.objects;
+
+import lombok.Getter;
+
+/**
+ * Copy of the bounds of a WorldGuard region in a single world, so it can be checked without asking WorldGuard.
+ * Cuboids only use the bounds, polygons also have their corners and global regions contain everything.
+ */
+@Getter
+public class RegionShape {
+
+    private final String world;
+    private final int priority;
+    private final boolean isGlobal;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+
+    // corners of polygon regions, null for everything else
+    private final int[] pointsX;
+    private final int[] pointsZ;
+
+    private RegionShape(String world, int priority, boolean isGlobal, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int[] pointsX, int[] pointsZ) {
+        this.world = world;
+        this.priority = priority;
+        this.isGlobal = isGlobal;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.pointsX = pointsX;
+        this.pointsZ = pointsZ;
+    }
+
+    public static RegionShape global(String world, int priority) {
+        return new RegionShape(world, priority, true, 0, 0, 0, 0, 0, 0, null, null);
+    }
+
+    public static RegionShape cuboid(String world, int priority, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return new RegionShape(world, priority, false, minX, minY, minZ, maxX, maxY, maxZ, null, null);
+    }
+
+    public static RegionShape polygon(String world, int priority, int minY, int maxY, int[] pointsX, int[] pointsZ) {
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < pointsX.length; i++) {
+            minX = Math.min(minX, pointsX[i]);
+            minZ = Math.min(minZ, pointsZ[i]);
+            maxX = Math.max(maxX, pointsX[i]);
+            maxZ = Math.max(maxZ, pointsZ[i]);
+        }
+        return new RegionShape(world, priority, false, minX, minY, minZ, maxX, maxY, maxZ, pointsX, pointsZ);
+    }
+
+    /**
+     * Same rules as WorldGuard, bounds and polygon edges count as inside
+     *
+     * @param x block x
+     * @param y block y
+     * @param z block z
+     * @return if the block is part of the region
+     */
+    public boolean contains(int x, int y, int z) {
+        if (isGlobal) return true;
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return false;
+        if (pointsX == null) return true;
+        return polygonContains(x, z);
+    }
+
+    private boolean polygonContains(int targetX, int targetZ) {
+        boolean inside = false;
+        int count = pointsX.length;
+        int xOld = pointsX[count - 1];
+        int zOld = pointsZ[count - 1];
+
+        for (int i = 0; i < count; i++) {
+            int xNew = pointsX[i];
+            int zNew = pointsZ[i];
+
+            // on a corner
+            if (xNew == targetX && zNew == targetZ) return true;
+
+            int x1, z1, x2, z2;
+            if (xNew > xOld) {
+                x1 = xOld;
+                x2 = xNew;
+                z1 = zOld;
+                z2 = zNew;
+            } else {
+                x1 = xNew;
+                x2 = xOld;
+                z1 = zNew;
+                z2 = zOld;
+            }
+
+            if (x1 <= targetX && targetX <= x2) {
+                long crossProduct = ((long) targetZ - z1) * (x2 - x1) - ((long) z2 - z1) * (targetX - x1);
+                if (crossProduct == 0) {
+                    // on an edge
+                    if ((z1 <= targetZ) == (targetZ <= z2)) return true;
+                } else if (crossProduct < 0 && x1 != targetX) {
+                    inside = !inside;
+                }
+            }
+
+            xOld = xNew;
+            zOld = zNew;
+        }
+
+        return inside;
+    }
+
+}
@@ -4,6 +4,7 @@ import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.media.objects.Media;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import org.bukkit.Bukkit;
 
 public class TimedRegionProperties extends RegionProperties {
@@ -30,7 +31,7 @@ public class TimedRegionProperties extends RegionProperties {
         OpenAudioMcSpigot.getInstance().getPlayerModule().getClients()
                 .stream()
                 .filter(client -> client.getRegions().stream().anyMatch(region -> region.getId().equals(id)))
-                .forEach(client -> client.getLocationDataWatcher().forceTicK());
+                .forEach(SpigotConnection::forceLocationUpdate);
     }
 
     public void destroy() {
@@ -2,52 +2,204 @@ package com.craftmend.openaudiomc.spigot.modules.speakers;
 
 
 import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.Vector3;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.utils.TypeCounter;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
-import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.bukkit.Location;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
-@AllArgsConstructor
 public class SpeakerCollector {
 
     private SpeakerModule speakerModule;
 
+    // size of the grid cells that speakers get clustered in, 0 if clustering is disabled
+    @Getter private final int clusterDistance;
+
+    // marks cells with a single speaker in the cluster cache, so they don't get rebuilt every time
+    private static final ApplicableSpeaker NO_CLUSTER = new ApplicableSpeaker(null, null, null);
+
+    // speakers per cluster cell, kept up to date by the speaker module
+    private final Map<String, Set<Speaker>> clusterMembers = new ConcurrentHashMap<>();
+    // clusters per cell, built on first use and dropped when one of their members changes
+    private final Map<String, ApplicableSpeaker> clusters = new ConcurrentHashMap<>();
+
+    public SpeakerCollector(SpeakerModule speakerModule) {
+        this.speakerModule = speakerModule;
+        this.clusterDistance = Math.max(StorageKey.SETTINGS_SPEAKER_CLUSTER_DISTANCE.getInt(), 0);
+    }
+
+    public boolean isClustering() {
+        return clusterDistance > 0;
+    }
+
     public Collection<ApplicableSpeaker> getApplicableSpeakers(Location location) {
-        List<Speaker> applicableSpeakers = new ArrayList<>(speakerModule.getSpeakerMap().values());
         Collection<ApplicableSpeaker> speakers = new ArrayList<>();
+        forEachApplicableSpeaker(location, speaker -> speakers.add(new ApplicableSpeaker(
+                speaker,
+                speaker.getSpeakerType(),
+                Vector3.from(speaker.getLocation())
+        )));
+        return isClustering() ? clusterSpeakers(speakers) : speakers;
+    }
 
-        applicableSpeakers.removeIf(speaker -> !speaker.getLocation().getWorld().equals(location.getWorld().getName()));
-        applicableSpeakers.removeIf(speaker -> speaker.getLocation().toBukkit().distance(location) > speaker.getRadius());
+    /**
+     * Visit all speakers in range of a location without collecting them
+     * @param location the location to check
+     * @param consumer called for every speaker that can be heard from the location
+     */
+    public void forEachApplicableSpeaker(Location location, Consumer<Speaker> consumer) {
+        Collection<Speaker> candidates = speakerModule.getSpeakerIndex()
+                .getCandidates(location.getWorld().getName(), location.getBlockX(), location.getBlockZ());
 
-        applicableSpeakers.forEach(speaker -> {
-            speakers.add(new ApplicableSpeaker(
-                    speaker,
-                    speaker.getSpeakerType(),
-                    Vector3.from(speaker.getLocation())
-            ));
-        });
+        for (Speaker speaker : candidates) {
+            // the index only knows about cells, so do the precise check here
+            MappedLocation speakerLocation = speaker.getLocation();
+            double dx = speakerLocation.getX() - location.getX();
+            double dy = speakerLocation.getY() - location.getY();
+            double dz = speakerLocation.getZ() - location.getZ();
+            if ((dx * dx) + (dy * dy) + (dz * dz) > (double) speaker.getRadius() * speaker.getRadius()) continue;
 
-        return speakers;
+            consumer.accept(speaker);
+        }
     }
 
     public SpeakerType guessSpeakerType(Location location, String source) {
-        Collection<ApplicableSpeaker> speakers = getApplicableSpeakers(location);
-        speakers.removeIf(other -> !other.getSpeaker().getMedia().getSource().equals(source));
         TypeCounter<SpeakerType> typeCounter = new TypeCounter<>();
 
-        for (ApplicableSpeaker speaker : speakers) {
-            typeCounter.bumpCounter(speaker.getSpeakerType());
-        }
+        // look at the real speakers, not the clusters they might be part of
+        forEachApplicableSpeaker(location, speaker -> {
+            if (speaker.getMedia().getSource().equals(source)) typeCounter.bumpCounter(speaker.getSpeakerType());
+        });
 
         SpeakerType highest = typeCounter.getHighest();
         return highest == null ? SpeakerModule.DEFAULT_SPEAKER_TYPE : highest;
     }
 
+    /**
+     * Keep track of a new speaker, or one that came back after being changed.
+     * Should be called for every speaker that gets added to the speaker index.
+     *
+     * @param speaker the speaker
+     */
+    public void addSpeaker(Speaker speaker) {
+        if (!isClustering()) return;
+        String key = clusterKey(speaker);
+        clusterMembers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(speaker);
+        clusters.remove(key);
+    }
+
+    /**
+     * Forget a speaker, should be called before the speaker gets changed or when it is removed
+     *
+     * @param speaker the speaker
+     */
+    public void removeSpeaker(Speaker speaker) {
+        if (!isClustering()) return;
+        String key = clusterKey(speaker);
+        clusterMembers.computeIfPresent(key, (k, members) -> {
+            members.remove(speaker);
+            return members.isEmpty() ? null : members;
+        });
+        clusters.remove(key);
+    }
+
+    /**
+     * Replace speakers that share their grid cell, source and type with other speakers by a single virtual
+     * speaker. The virtual speaker is placed on the centroid of all members of its cell (not just the ones in range)
+     * and its radius covers all of theirs, so it stays the same while the player walks between members.
+     * Its id is based on the cell and its members, so the client gets a new speaker once the cluster changes.
+     *
+     * @param speakers applicable speakers
+     * @return speakers that should be sent to the client
+     */
+    private Collection<ApplicableSpeaker> clusterSpeakers(Collection<ApplicableSpeaker> speakers) {
+        if (speakers.isEmpty()) return speakers;
+
+        Map<UUID, ApplicableSpeaker> emitters = new LinkedHashMap<>();
+        for (ApplicableSpeaker applicable : speakers) {
+            String key = clusterKey(applicable.getSpeaker());
+            ApplicableSpeaker cluster = clusters.computeIfAbsent(key, this::buildCluster);
+
+            // alone in its cell, or not tracked (yet)
+            if (cluster == null || cluster == NO_CLUSTER) {
+                emitters.put(applicable.getSpeaker().getId(), applicable);
+            } else {
+                emitters.putIfAbsent(cluster.getSpeaker().getId(), cluster);
+            }
+        }
+        return emitters.values();
+    }
+
+    private String clusterKey(Speaker speaker) {
+        MappedLocation location = speaker.getLocation();
+        return speaker.getSource()
+                + '|' + speaker.getSpeakerType()
+                + '|' + location.getWorld()
+                + '|' + Math.floorDiv(location.getX(), clusterDistance)
+                + '|' + Math.floorDiv(location.getY(), clusterDistance)
+                + '|' + Math.floorDiv(location.getZ(), clusterDistance);
+    }
+
+    private ApplicableSpeaker buildCluster(String key) {
+        Set<Speaker> tracked = clusterMembers.get(key);
+        if (tracked == null) return null;
+
+        // sorted, so the id doesn't depend on the order they were added in
+        List<Speaker> members = new ArrayList<>(tracked);
+        if (members.size() < 2) return NO_CLUSTER;
+        members.sort(Comparator.comparing(Speaker::getId));
+
+        double x = 0;
+        double y = 0;
+        double z = 0;
+        StringBuilder identity = new StringBuilder("cluster|").append(key);
+        for (Speaker member : members) {
+            x += member.getLocation().getX();
+            y += member.getLocation().getY();
+            z += member.getLocation().getZ();
+            identity.append('|').append(member.getId()).append(':').append(member.getRadius()).append(':').append(new TreeSet<>(member.getExtraOptions()));
+        }
+        x /= members.size();
+        y /= members.size();
+        z /= members.size();
+
+        // grow the radius until every member's own range is covered
+        double radius = 0;
+        Set<ExtraSpeakerOptions> options = null;
+        for (Speaker speaker : members) {
+            double dx = speaker.getLocation().getX() - x;
+            double dy = speaker.getLocation().getY() - y;
+            double dz = speaker.getLocation().getZ() - z;
+            radius = Math.max(radius, Math.sqrt((dx * dx) + (dy * dy) + (dz * dz)) + speaker.getRadius());
+
+            // only keep options that all members agree on
+            if (options == null) {
+                options = new HashSet<>(speaker.getExtraOptions());
+            } else {
+                options.retainAll(speaker.getExtraOptions());
+            }
+        }
+
+        Speaker first = members.get(0);
+        Speaker virtual = new Speaker(
+                first.getSource(),
+                UUID.nameUUIDFromBytes(identity.toString().getBytes(StandardCharsets.UTF_8)),
+                (int) Math.ceil(radius),
+                new MappedLocation((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z), first.getLocation().getWorld()),
+                first.getSpeakerType(),
+                options
+        );
+
+        return new ApplicableSpeaker(virtual, first.getSpeakerType(), new Vector3(x, y, z));
+    }
+
 }
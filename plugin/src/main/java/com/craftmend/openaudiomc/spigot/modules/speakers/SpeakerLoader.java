@@ -2,87 +2,162 @@ package com.craftmend.openaudiomc.spigot.modules.speakers;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
 import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.QueuedSpeaker;
-import lombok.AllArgsConstructor;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.StoredSpeaker;
+import com.craftmend.openaudiomc.spigot.modules.speakers.storage.SpeakerStore;
+import lombok.Getter;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 
-@AllArgsConstructor
 public class SpeakerLoader {
 
     private SpeakerModule speakerModule;
 
+    // only materialize speakers while their chunk is loaded
+    @Getter private final boolean isLazy;
+
+    public SpeakerLoader(SpeakerModule speakerModule) {
+        this.speakerModule = speakerModule;
+        this.isLazy = StorageKey.SETTINGS_LAZY_SPEAKERS.getBoolean();
+    }
+
     public void loadFiles() {
-        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+        SpeakerStore store = speakerModule.getSpeakerStore();
+
+        // speakers used to be stored in the data file, move them over. They only leave the data file once they're
+        // in the store, so a migration that failed gets done again on the next start
+        List<StoredSpeaker> migrated = readLegacySpeakers();
+
+        int speakerCount = store.load();
+        if (!migrated.isEmpty()) {
+            store.save(migrated);
+            speakerCount = store.size();
+
+            // make sure they're on disk before they get removed from the data file
+            if (store.flush()) {
+                ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+                config.setString(StorageLocation.DATA_FILE, "speakers", null);
+                config.saveAll();
+                OpenAudioLogger.toConsole("Migrated " + migrated.size() + " speakers from the data file to the speaker store.");
+            } else {
+                OpenAudioLogger.toConsole("Failed to write " + migrated.size() + " migrated speakers to the speaker store, they'll stay in the data file until the next start.");
+            }
+        }
+
+        if (isLazy) {
+            // chunks that are already loaded won't fire an event, the rest follows with chunk loads
+            for (World world : Bukkit.getWorlds()) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    loadChunk(chunk);
+                }
+            }
+            OpenAudioLogger.toConsole("Lazy speakers are enabled, " + speakerCount + " speakers will be loaded along with their chunks.");
+            return;
+        }
 
         //load speakers
-        for (String id : config.getStringSet("speakers", StorageLocation.DATA_FILE)) {
+        for (StoredSpeaker speaker : store.getAll()) {
             // check if said world is loaded
-            String world = config.getStringFromPath("speakers." + id + ".world", StorageLocation.DATA_FILE);
-            World bukkitWorld = Bukkit.getWorld(world);
-            if (bukkitWorld == null) {
-                Set<QueuedSpeaker> queue = speakerModule.getWaitingWorlds().getOrDefault(world, new HashSet<>());
-                queue.add(new QueuedSpeaker(world, id));
-                speakerModule.getWaitingWorlds().put(world, queue);
+            String world = speaker.getLocation().getWorld();
+            if (Bukkit.getWorld(world) == null) {
+                speakerModule.getWaitingWorlds()
+                        .computeIfAbsent(world, w -> new HashSet<>())
+                        .add(new QueuedSpeaker(world, speaker.getId().toString()));
             } else {
-                loadFromFile(id);
+                load(speaker);
             }
         }
-
     }
 
     public void loadFromFile(String id) {
-        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+        StoredSpeaker speaker = speakerModule.getSpeakerStore().get(UUID.fromString(id));
+        if (speaker != null) load(speaker);
+    }
 
-        String world = config.getStringFromPath("speakers." + id + ".world", StorageLocation.DATA_FILE);
-        String media = config.getStringFromPath("speakers." + id + ".media", StorageLocation.DATA_FILE);
-        int x = config.getIntFromPath("speakers." + id + ".x", StorageLocation.DATA_FILE);
-        int y = config.getIntFromPath("speakers." + id + ".y", StorageLocation.DATA_FILE);
-        int z = config.getIntFromPath("speakers." + id + ".z", StorageLocation.DATA_FILE);
-        int radius = config.getIntFromPath("speakers." + id + ".radius", StorageLocation.DATA_FILE);
-        Set<String> options = config.getStringSet("speakers." + id + ".options", StorageLocation.DATA_FILE);
-        Set<ExtraSpeakerOptions> extraOptions = new HashSet<>();
-
-        // are are they enabled?
-        for (String option : options) {
-            if (config.getStringFromPath("speakers." + id + ".options." + option, StorageLocation.DATA_FILE) == "true") {
-                extraOptions.add(ExtraSpeakerOptions.valueOf(option.toUpperCase()));
-            }
+    /**
+     * Register the stored speakers of a chunk that just loaded, only used in lazy mode
+     *
+     * @param chunk the chunk
+     */
+    public void loadChunk(Chunk chunk) {
+        for (StoredSpeaker speaker : speakerModule.getSpeakerStore().getInChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ())) {
+            if (speakerModule.getSpeaker(speaker.getLocation()) == null) load(speaker);
         }
+    }
 
-        // try to figure out what type the speaker is when loading
-        // it might be none, since speakers were introduced before this update
-        // but we'll just fallback to 2d when it comes to it
-        SpeakerType speakerType;
-        if (!config.getStringFromPath("speakers." + id + ".type", StorageLocation.DATA_FILE).startsWith("<")) {
-            String typeName = config.getStringFromPath("speakers." + id + ".type", StorageLocation.DATA_FILE);
-            speakerType = SpeakerType.valueOf(typeName);
-        } else {
-            // like i said, falling back on 2D, but might fallback to 3D later
-            speakerType = SpeakerModule.DEFAULT_SPEAKER_TYPE;
+    /**
+     * Drop the speakers of a chunk that unloaded, they stay in the store. Only used in lazy mode
+     *
+     * @param chunk the chunk
+     */
+    public void unloadChunk(Chunk chunk) {
+        for (Speaker speaker : speakerModule.getSpeakersInChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ())) {
+            speakerModule.unlistSpeaker(speaker.getLocation());
         }
+    }
 
+    private void load(StoredSpeaker speaker) {
+        if (speaker.getLocation().getBlock() == null) {
+            OpenAudioLogger.toConsole("Speaker " + speaker.getId() + " doesn't to seem be valid anymore, so it's not getting loaded.");
+            return;
+        }
 
-        if (world != null) {
-            MappedLocation mappedLocation = new MappedLocation(x, y, z, world);
-            Block blockAt = mappedLocation.getBlock();
+        speakerModule.registerSpeaker(
+                speaker.getLocation(),
+                speaker.getSource(),
+                speaker.getId(),
+                speaker.getRadius(),
+                speaker.getType(),
+                new HashSet<>(speaker.getOptions())
+        );
+    }
+
+    private List<StoredSpeaker> readLegacySpeakers() {
+        ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
+        List<StoredSpeaker> speakers = new ArrayList<>();
 
-            if (blockAt != null) {
-                speakerModule.registerSpeaker(mappedLocation, media, UUID.fromString(id), radius, speakerType, extraOptions);
+        for (String id : config.getStringSet("speakers", StorageLocation.DATA_FILE)) {
+            String world = config.getStringFromPath("speakers." + id + ".world", StorageLocation.DATA_FILE);
+            if (world == null) continue;
+
+            String media = config.getStringFromPath("speakers." + id + ".media", StorageLocation.DATA_FILE);
+            int x = config.getIntFromPath("speakers." + id + ".x", StorageLocation.DATA_FILE);
+            int y = config.getIntFromPath("speakers." + id + ".y", StorageLocation.DATA_FILE);
+            int z = config.getIntFromPath("speakers." + id + ".z", StorageLocation.DATA_FILE);
+            int radius = config.getIntFromPath("speakers." + id + ".radius", StorageLocation.DATA_FILE);
+            Set<String> options = config.getStringSet("speakers." + id + ".options", StorageLocation.DATA_FILE);
+            Set<ExtraSpeakerOptions> extraOptions = new HashSet<>();
+
+            // are are they enabled?
+            for (String option : options) {
+                if ("true".equals(config.getStringFromPath("speakers." + id + ".options." + option, StorageLocation.DATA_FILE))) {
+                    extraOptions.add(ExtraSpeakerOptions.valueOf(option.toUpperCase()));
+                }
+            }
+
+            // it might be none, since speakers were introduced before the type was, fall back to the default
+            SpeakerType speakerType;
+            String typeName = config.getStringFromPath("speakers." + id + ".type", StorageLocation.DATA_FILE);
+            if (typeName != null && !typeName.startsWith("<")) {
+                speakerType = SpeakerType.valueOf(typeName);
             } else {
-                OpenAudioLogger.toConsole("Speaker " + id + " doesn't to seem be valid anymore, so it's not getting loaded.");
+                speakerType = SpeakerModule.DEFAULT_SPEAKER_TYPE;
             }
+
+            speakers.add(new StoredSpeaker(UUID.fromString(id), new MappedLocation(x, y, z, world), radius, media, speakerType, extraOptions));
         }
+
+        return speakers;
     }
 
 }
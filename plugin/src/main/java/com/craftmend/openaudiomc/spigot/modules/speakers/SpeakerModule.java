@@ -2,15 +2,22 @@ package com.craftmend.openaudiomc.spigot.modules.speakers;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.utils.LongObjectMap;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.speakers.index.SpeakerIndex;
 import com.craftmend.openaudiomc.spigot.modules.speakers.interfaces.IRayTracer;
+import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.ObstructionInvalidationListener;
+import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerChunkListener;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerSelectListener;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.WorldLoadListener;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.*;
+import com.craftmend.openaudiomc.spigot.modules.speakers.storage.SpeakerStore;
 import com.craftmend.openaudiomc.spigot.modules.speakers.tasks.SpeakerGarbageCollection;
-import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.EstimatedRayTracer;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.ObstructionCache;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.SnapshotObstructionTracer;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.VoxelRayTracer;
 import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerCreateListener;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerDestroyListener;
@@ -18,6 +25,7 @@ import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerDestro
 import lombok.Getter;
 import org.bukkit.*;
 
+import java.io.File;
 import java.util.*;
 
 public class SpeakerModule {
@@ -26,31 +34,46 @@ public class SpeakerModule {
     @Getter private SpeakerCollector collector;
 
     public static final SpeakerType DEFAULT_SPEAKER_TYPE = SpeakerType.SPEAKER_2D;
-    @Getter private Map<MappedLocation, Speaker> speakerMap = new HashMap<>();
+    // speakers per world, keyed by their packed block position
+    private Map<String, LongObjectMap<Speaker>> speakerMap = new HashMap<>();
+    // the same speakers, but grouped by the chunk they're in
+    private Map<String, LongObjectMap<Set<Speaker>>> chunkSpeakerMap = new HashMap<>();
+    @Getter private SpeakerIndex speakerIndex = new SpeakerIndex();
     private Map<String, SpeakerMedia> speakerMediaMap = new HashMap<>();
     @Getter private Material playerSkullItem;
     @Getter private Material playerSkullBlock;
     @Getter private Map<String, Set<QueuedSpeaker>> waitingWorlds = new HashMap<>();
     @Getter private ServerVersion version;
 
-    private EstimatedRayTracer estimatedRayTracer = new EstimatedRayTracer();
+    private VoxelRayTracer voxelRayTracer = new VoxelRayTracer();
+    @Getter private ObstructionCache obstructionCache = new ObstructionCache();
+    @Getter private SpeakerGarbageCollection garbageCollection;
+    @Getter private SpeakerStore speakerStore = new SpeakerStore(new File(OpenAudioMcSpigot.getInstance().getDataFolder(), "speakers.dat"));
+    @Getter private SnapshotObstructionTracer obstructionTracer;
 
     public SpeakerModule(OpenAudioMcSpigot openAudioMcSpigot) {
         openAudioMcSpigot.registerEvents(
                 new SpeakerSelectListener(this),
                 new SpeakerCreateListener(openAudioMcSpigot, this),
                 new SpeakerDestroyListener(OpenAudioMc.getInstance(), this),
-                new WorldLoadListener()
+                new WorldLoadListener(),
+                new ObstructionInvalidationListener(this),
+                new SpeakerChunkListener(this)
         );
 
         collector = new SpeakerCollector(this);
         loader = new SpeakerLoader(this);
 
         initializeVersion();
+        obstructionTracer = new SnapshotObstructionTracer(obstructionCache, version);
         loader.loadFiles();
 
-        // setup garbage system
-        new SpeakerGarbageCollection(this);
+        // check every five minutes if the speaker file could use a cleanup
+        OpenAudioMc.getInstance().getTaskProvider().scheduleAsyncRepeatingTask(speakerStore::compactIfNeeded, 20 * 60 * 5, 20 * 60 * 5);
+
+        // setup garbage system, chunks that are already loaded won't fire a load event so those get checked once
+        garbageCollection = new SpeakerGarbageCollection(this);
+        OpenAudioMc.getInstance().getTaskProvider().schduleSyncDelayedTask(garbageCollection::validateLoadedChunks, 1);
 
         // reset with new addon
         OpenAudioMc.getInstance().getMediaModule().getResetTriggers().add(() -> {
@@ -59,8 +82,13 @@ public class SpeakerModule {
     }
 
     public IRayTracer getRayTracer() {
-        // provide a default ray tracer, just use the simple one for now
-        return estimatedRayTracer;
+        // provide a default ray tracer, the voxel tracer is exact and cheap enough
+        return voxelRayTracer;
+    }
+
+    public void onDisable() {
+        obstructionTracer.shutdown();
+        speakerStore.close();
     }
 
     private void initializeVersion() {
@@ -88,13 +116,75 @@ public class SpeakerModule {
         }
     }
 
-    public void registerSpeaker(MappedLocation mappedLocation, String source, UUID uuid, int radius, SpeakerType type, Set<ExtraSpeakerOptions> options) {
+    public Speaker registerSpeaker(MappedLocation mappedLocation, String source, UUID uuid, int radius, SpeakerType type, Set<ExtraSpeakerOptions> options) {
         Speaker speaker = new Speaker(source, uuid, radius, mappedLocation, type, options);
-        speakerMap.put(mappedLocation, speaker);
+        Speaker replaced = speakerMap.computeIfAbsent(mappedLocation.getWorld(), world -> new LongObjectMap<>())
+                .put(mappedLocation.toBlockKey(), speaker);
+        if (replaced != null) {
+            speakerIndex.remove(replaced);
+            collector.removeSpeaker(replaced);
+            removeFromChunk(replaced);
+        }
+        speakerIndex.add(speaker);
+        collector.addSpeaker(speaker);
+        chunkSpeakerMap.computeIfAbsent(mappedLocation.getWorld(), world -> new LongObjectMap<>())
+                .computeIfAbsent(mappedLocation.toChunkKey(), chunk -> new HashSet<>())
+                .add(speaker);
+        return speaker;
+    }
+
+    public void setSpeakerRadius(Speaker speaker, int radius) {
+        // the index is radius aware, so it needs to be moved over to its new cells
+        speakerIndex.remove(speaker);
+        collector.removeSpeaker(speaker);
+        speaker.setRadius(radius);
+        speakerIndex.add(speaker);
+        collector.addSpeaker(speaker);
+    }
+
+    public void setSpeakerType(Speaker speaker, SpeakerType type) {
+        // clusters are per type
+        collector.removeSpeaker(speaker);
+        speaker.setSpeakerType(type);
+        collector.addSpeaker(speaker);
+    }
+
+    public void setSpeakerOption(Speaker speaker, ExtraSpeakerOptions option, boolean enabled) {
+        // clusters only keep the options that all their members have
+        collector.removeSpeaker(speaker);
+        if (enabled) {
+            speaker.getExtraOptions().add(option);
+        } else {
+            speaker.getExtraOptions().remove(option);
+        }
+        collector.addSpeaker(speaker);
     }
 
     public Speaker getSpeaker(MappedLocation location) {
-        return speakerMap.get(location);
+        return getSpeaker(location.getWorld(), location.getX(), location.getY(), location.getZ());
+    }
+
+    public Speaker getSpeaker(String world, int x, int y, int z) {
+        LongObjectMap<Speaker> worldSpeakers = speakerMap.get(world);
+        if (worldSpeakers == null) return null;
+        return worldSpeakers.get(MappedLocation.toBlockKey(x, y, z));
+    }
+
+    /**
+     * @return a copy of all loaded speakers
+     */
+    public Collection<Speaker> getSpeakers() {
+        List<Speaker> speakers = new ArrayList<>();
+        for (LongObjectMap<Speaker> worldSpeakers : speakerMap.values()) {
+            worldSpeakers.forEachValue(speakers::add);
+        }
+        return speakers;
+    }
+
+    public int getSpeakerCount() {
+        int count = 0;
+        for (LongObjectMap<Speaker> worldSpeakers : speakerMap.values()) count += worldSpeakers.size();
+        return count;
     }
 
     public SpeakerMedia getMedia(String source) {
@@ -105,7 +195,41 @@ public class SpeakerModule {
     }
 
     public void unlistSpeaker(MappedLocation location) {
-        speakerMap.remove(location);
+        LongObjectMap<Speaker> worldSpeakers = speakerMap.get(location.getWorld());
+        if (worldSpeakers == null) return;
+
+        Speaker speaker = worldSpeakers.remove(location.toBlockKey());
+        if (speaker != null) {
+            speakerIndex.remove(speaker);
+            collector.removeSpeaker(speaker);
+            removeFromChunk(speaker);
+        }
+        if (worldSpeakers.isEmpty()) speakerMap.remove(location.getWorld());
+    }
+
+    /**
+     * @param world world name
+     * @param chunkX chunk x
+     * @param chunkZ chunk z
+     * @return a copy of the speakers that are placed in the given chunk
+     */
+    public Collection<Speaker> getSpeakersInChunk(String world, int chunkX, int chunkZ) {
+        LongObjectMap<Set<Speaker>> worldChunks = chunkSpeakerMap.get(world);
+        if (worldChunks == null) return Collections.emptyList();
+        Set<Speaker> speakers = worldChunks.get(MappedLocation.toChunkKey(chunkX, chunkZ));
+        return speakers == null ? Collections.emptyList() : new ArrayList<>(speakers);
+    }
+
+    private void removeFromChunk(Speaker speaker) {
+        MappedLocation location = speaker.getLocation();
+        LongObjectMap<Set<Speaker>> worldChunks = chunkSpeakerMap.get(location.getWorld());
+        if (worldChunks == null) return;
+
+        Set<Speaker> speakers = worldChunks.get(location.toChunkKey());
+        if (speakers == null) return;
+        speakers.remove(speaker);
+        if (speakers.isEmpty()) worldChunks.remove(location.toChunkKey());
+        if (worldChunks.isEmpty()) chunkSpeakerMap.remove(location.getWorld());
     }
 
 }
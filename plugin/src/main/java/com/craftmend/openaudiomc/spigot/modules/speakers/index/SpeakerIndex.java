@@ -0,0 +1,83 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.index;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Per world spatial index for speakers, bucketed by chunk.
+ *
+ * A speaker gets listed in every chunk cell that its radius touches, so finding
+ * the speakers that a player might hear only requires looking at the cell the player is standing in.
+ * Lookups happen from the async location watchers while mutations happen on the main thread,
+ * hence the concurrent collections.
+ */
+public class SpeakerIndex {
+
+    // 16 block cells, same as a chunk
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<String, Map<Long, Set<Speaker>>> worlds = new ConcurrentHashMap<>();
+
+    public void add(Speaker speaker) {
+        Map<Long, Set<Speaker>> cells = worlds.computeIfAbsent(speaker.getLocation().getWorld(), world -> new ConcurrentHashMap<>());
+        forEachCell(speaker, key -> cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(speaker));
+    }
+
+    public void remove(Speaker speaker) {
+        Map<Long, Set<Speaker>> cells = worlds.get(speaker.getLocation().getWorld());
+        if (cells == null) return;
+
+        forEachCell(speaker, key -> {
+            Set<Speaker> cell = cells.get(key);
+            if (cell == null) return;
+            cell.remove(speaker);
+            if (cell.isEmpty()) cells.remove(key);
+        });
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * @param world the world name
+     * @param blockX block x of the query location
+     * @param blockZ block z of the query location
+     * @return all speakers that could reach this column, still needs a precise distance check
+     */
+    public Collection<Speaker> getCandidates(String world, int blockX, int blockZ) {
+        Map<Long, Set<Speaker>> cells = worlds.get(world);
+        if (cells == null) return Collections.emptySet();
+
+        Set<Speaker> cell = cells.get(cellKey(blockX >> CELL_SHIFT, blockZ >> CELL_SHIFT));
+        return cell == null ? Collections.emptySet() : cell;
+    }
+
+    private void forEachCell(Speaker speaker, LongConsumer consumer) {
+        MappedLocation location = speaker.getLocation();
+        int radius = Math.max(speaker.getRadius(), 0);
+
+        int minX = (location.getX() - radius) >> CELL_SHIFT;
+        int maxX = (location.getX() + radius) >> CELL_SHIFT;
+        int minZ = (location.getZ() - radius) >> CELL_SHIFT;
+        int maxZ = (location.getZ() + radius) >> CELL_SHIFT;
+
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                consumer.accept(cellKey(cellX, cellZ));
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.interfaces;
+
+public interface BlockSolidity {
+
+    // check if the block at a given position blocks sound
+    boolean isSolid(int x, int y, int z);
+
+}
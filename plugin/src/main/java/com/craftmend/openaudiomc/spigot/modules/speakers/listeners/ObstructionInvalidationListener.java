@@ -0,0 +1,98 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.listeners;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+import com.craftmend.openaudiomc.spigot.modules.speakers.tracing.ObstructionCache;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.*;
+
+/**
+ * Drops cached obstructions when the geometry along their rays changes.
+ * Changes are collected per world and handled once per tick, so explosions and
+ * piston contraptions don't trigger a re-trace for every single block.
+ */
+public class ObstructionInvalidationListener implements Listener {
+
+    private final SpeakerModule speakerModule;
+    private final Map<String, Set<Long>> changedCells = new HashMap<>();
+    private boolean isFlushScheduled = false;
+
+    public ObstructionInvalidationListener(SpeakerModule speakerModule) {
+        this.speakerModule = speakerModule;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().forEach(this::markChanged);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().forEach(this::markChanged);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        markChanged(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            markChanged(block);
+            markChanged(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        markChanged(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            markChanged(block);
+            markChanged(block.getRelative(event.getDirection()));
+        }
+    }
+
+    private void markChanged(Block block) {
+        changedCells.computeIfAbsent(block.getWorld().getName(), world -> new HashSet<>())
+                .add(ObstructionCache.cellKey(block.getX() >> 4, block.getZ() >> 4));
+
+        if (!isFlushScheduled) {
+            isFlushScheduled = true;
+            OpenAudioMc.getInstance().getTaskProvider().schduleSyncDelayedTask(this::flush, 1);
+        }
+    }
+
+    private void flush() {
+        isFlushScheduled = false;
+
+        Set<Speaker> affected = new HashSet<>();
+        for (Map.Entry<String, Set<Long>> entry : changedCells.entrySet()) {
+            affected.addAll(speakerModule.getObstructionCache().invalidate(entry.getKey(), entry.getValue()));
+        }
+        changedCells.clear();
+
+        if (affected.isEmpty()) return;
+
+        // let clients that are currently hearing these speakers know about the new situation
+        for (SpigotConnection spigotConnection : OpenAudioMcSpigot.getInstance().getPlayerModule().getClients()) {
+            spigotConnection.getSpeakerHandler().refreshObstructions(affected);
+        }
+    }
+
+}
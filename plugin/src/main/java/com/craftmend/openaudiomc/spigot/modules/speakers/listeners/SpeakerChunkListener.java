@@ -0,0 +1,27 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.listeners;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import lombok.AllArgsConstructor;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+@AllArgsConstructor
+public class SpeakerChunkListener implements Listener {
+
+    private SpeakerModule speakerModule;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoad(ChunkLoadEvent event) {
+        if (speakerModule.getLoader().isLazy()) speakerModule.getLoader().loadChunk(event.getChunk());
+        speakerModule.getGarbageCollection().validateChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onUnload(ChunkUnloadEvent event) {
+        if (speakerModule.getLoader().isLazy()) speakerModule.getLoader().unloadChunk(event.getChunk());
+    }
+
+}
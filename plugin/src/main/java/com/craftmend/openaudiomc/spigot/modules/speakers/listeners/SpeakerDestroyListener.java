@@ -1,9 +1,7 @@
 package com.craftmend.openaudiomc.spigot.modules.speakers.listeners;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
-import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
 import com.craftmend.openaudiomc.spigot.modules.speakers.utils.SpeakerUtils;
 import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
@@ -31,14 +29,13 @@ public class SpeakerDestroyListener implements Listener {
                 return;
             }
 
-            MappedLocation location = new MappedLocation(broken.getLocation());
-            Speaker speaker = speakerModule.getSpeaker(location);
+            Speaker speaker = speakerModule.getSpeaker(broken.getWorld().getName(), broken.getX(), broken.getY(), broken.getZ());
             if (speaker == null) return;
 
-            speakerModule.unlistSpeaker(location);
+            speakerModule.unlistSpeaker(speaker.getLocation());
 
-            //save to config
-            openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE,"speakers." + speaker.getId().toString(), null);
+            //remove from the store
+            speakerModule.getSpeakerStore().delete(speaker.getId());
 
             event.getPlayer().sendMessage(openAudioMc.getCommandModule().getCommandPrefix() + ChatColor.RED + "Speaker destroyed");
             try {
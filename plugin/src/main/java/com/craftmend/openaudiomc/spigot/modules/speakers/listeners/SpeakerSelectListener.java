@@ -3,13 +3,13 @@ package com.craftmend.openaudiomc.spigot.modules.speakers.listeners;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
 import com.craftmend.openaudiomc.spigot.modules.speakers.menu.SpeakerMenu;
-import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
 
 import com.craftmend.openaudiomc.spigot.modules.speakers.utils.SpeakerUtils;
 import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
 import lombok.AllArgsConstructor;
 
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -27,7 +27,8 @@ public class SpeakerSelectListener implements Listener {
         if (OpenAudioMcSpigot.getInstance().getServerService().getVersion() == ServerVersion.MODERN && event.getHand() != EquipmentSlot.HAND) return;
         if (event.getAction() == Action.RIGHT_CLICK_BLOCK) {
             if (isAllowed(event.getPlayer())) {
-                Speaker speaker = speakerModule.getSpeaker(new MappedLocation(event.getClickedBlock().getLocation()));
+                Block clicked = event.getClickedBlock();
+                Speaker speaker = speakerModule.getSpeaker(clicked.getWorld().getName(), clicked.getX(), clicked.getY(), clicked.getZ());
                 if (speaker == null) {
                     return;
                 }
@@ -1,8 +1,6 @@
 package com.craftmend.openaudiomc.spigot.modules.speakers.menu;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
-import com.craftmend.openaudiomc.generic.storage.interfaces.ConfigurationImplementation;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
@@ -64,15 +62,8 @@ public class SpeakerMenu extends Menu {
                 settingItem.setLore(new String[]{setting.getDescription()});
 
                 settingItem.onClick((clicker, what) -> {
-                    ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
-                    if (isEnabled) {
-                        speaker.getExtraOptions().remove(setting);
-                        config.setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".options." + setting, "false");
-                    } else {
-                        speaker.getExtraOptions().add(setting);
-                        config.setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".options." + setting, "true");
-                    }
-                    config.saveAll();
+                    OpenAudioMcSpigot.getInstance().getSpeakerModule().setSpeakerOption(speaker, setting, !isEnabled);
+                    OpenAudioMcSpigot.getInstance().getSpeakerModule().getSpeakerStore().save(speaker);
                     new SpeakerMenu(speaker).openFor(clicker);
                 });
 
@@ -113,7 +104,7 @@ public class SpeakerMenu extends Menu {
         // makes me wonder why i thought it would be use full to get the clicked item, its just ugly code
         // maybe remove in the future? don't think its used anywhere.
         item.onClick((clicker, clickedItem) -> {
-            speaker.setSpeakerType(nextSelectableMode);
+            OpenAudioMcSpigot.getInstance().getSpeakerModule().setSpeakerType(speaker, nextSelectableMode);
             new SpeakerMenu(speaker).openFor(clicker);
 
             // trigger re-render for everyone in the area
@@ -121,9 +112,7 @@ public class SpeakerMenu extends Menu {
             int safeRadius = speaker.getRadius() + 1;
             Collection<Entity> entities = bukkitSpeakerLocation.getWorld().getNearbyEntities(bukkitSpeakerLocation, safeRadius, safeRadius, safeRadius);
 
-            ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
-            config.setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".type", nextSelectableMode.toString());
-            config.saveAll();
+            OpenAudioMcSpigot.getInstance().getSpeakerModule().getSpeakerStore().save(speaker);
 
             for (Entity entity : entities) {
                 // skip non-players
@@ -138,7 +127,7 @@ public class SpeakerMenu extends Menu {
                         speaker.getMedia().getSource()
                 );
 
-                spigotConnection.getSpeakers().clear();
+                spigotConnection.getSpeakerHandler().reset();
                 spigotConnection.getSpeakerHandler().tick();
             }
         });
@@ -159,9 +148,8 @@ public class SpeakerMenu extends Menu {
                 )
                 .onClick((player, item) -> {
                     if (distance == speaker.getRadius()) return;
-                    ConfigurationImplementation config = OpenAudioMc.getInstance().getConfiguration();
-                    config.setInt(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".radius", distance);
-                    speaker.setRadius(distance);
+                    OpenAudioMcSpigot.getInstance().getSpeakerModule().setSpeakerRadius(speaker, distance);
+                    OpenAudioMcSpigot.getInstance().getSpeakerModule().getSpeakerStore().save(speaker);
                     player.sendMessage(OpenAudioMc.getInstance().getCommandModule().getCommandPrefix() + "Updated speaker radius to " + distance);
                     new SpeakerMenu(speaker).openFor(player);
                 });
@@ -34,6 +34,33 @@ public class MappedLocation {
         return null;
     }
 
+    /**
+     * @return the block position packed into a single long, see {@link #toBlockKey(int, int, int)}
+     */
+    public long toBlockKey() {
+        return toBlockKey(this.x, this.y, this.z);
+    }
+
+    /**
+     * Packs a block position into a single long, 26 bits for x and z and 12 bits for y.
+     * This covers the entire world border, and then some.
+     * @return packed position
+     */
+    public static long toBlockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * @return the chunk this location is in, packed into a single long, see {@link #toChunkKey(int, int)}
+     */
+    public long toChunkKey() {
+        return toChunkKey(this.x >> 4, this.z >> 4);
+    }
+
+    public static long toChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     public static MappedLocation fromBukkit(Location location) {
         return new MappedLocation(location.getBlockX(), location.getBlockY(), location.getBlockZ(), location.getWorld().getName());
     }
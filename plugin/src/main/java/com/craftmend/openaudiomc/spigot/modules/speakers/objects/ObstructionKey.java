@@ -0,0 +1,15 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ObstructionKey {
+
+    private UUID speakerId;
+    private long playerBlock;
+
+}
@@ -0,0 +1,37 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.objects;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persisted definition of a speaker, everything needed to register it again
+ */
+@Data
+@AllArgsConstructor
+public class StoredSpeaker {
+
+    private UUID id;
+    private MappedLocation location;
+    private int radius;
+    private String source;
+    private SpeakerType type;
+    private Set<ExtraSpeakerOptions> options;
+
+    public static StoredSpeaker fromSpeaker(Speaker speaker) {
+        return new StoredSpeaker(
+                speaker.getId(),
+                speaker.getLocation(),
+                speaker.getRadius(),
+                speaker.getSource(),
+                speaker.getSpeakerType(),
+                new HashSet<>(speaker.getExtraOptions())
+        );
+    }
+
+}
@@ -0,0 +1,588 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.storage;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.storage.persistence.WriteBehindQueue;
+import com.craftmend.openaudiomc.generic.utils.LongObjectMap;
+import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.ExtraSpeakerOptions;
+import com.craftmend.openaudiomc.spigot.modules.speakers.enums.SpeakerType;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.StoredSpeaker;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Append only, binary log of speaker definitions.
+ *
+ * Every change appends a single record (the full speaker, or a deletion) instead of rewriting
+ * a yaml file, and loading is one streaming pass where later records win.
+ * Only where the latest record of every speaker is in the file gets kept in memory (grouped by chunk),
+ * speakers are read back from the file when they're needed, like when their chunk loads.
+ * Changes are applied in memory right away, and appended in batches by a write-behind queue.
+ * The log gets compacted once it holds considerably more dead records than live speakers.
+ */
+public class SpeakerStore {
+
+    private static final int MAGIC = 0x4F415350; // OASP
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+
+    // don't bother compacting small files
+    private static final int MIN_DEAD_RECORDS = 1000;
+
+    private final File file;
+    private final Map<UUID, RecordPointer> records = new LinkedHashMap<>();
+    // the same records grouped by chunk, so chunks can be loaded without looking at every speaker
+    private final Map<String, LongObjectMap<List<RecordPointer>>> chunks = new HashMap<>();
+    // every record has its own copy of the world name when it's read, only keep one of them
+    private final Map<String, String> worldNames = new HashMap<>();
+    private DataOutputStream writer;
+    // file length when the writer was opened, the writer counts the rest
+    private long writerBase = 0;
+    private RandomAccessFile reader;
+    private int deadRecords = 0;
+    private boolean isCompacting = false;
+
+    private final WriteBehindQueue<UUID, StoredSpeaker> queue;
+
+    public SpeakerStore(File file) {
+        this.file = file;
+        this.queue = OpenAudioMc.getInstance().getPersistenceService().createQueue("speakers", this::append);
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Index the log, and open it for reading and writing
+     *
+     * @return the amount of stored speakers
+     */
+    public synchronized int load() {
+        records.clear();
+        chunks.clear();
+        worldNames.clear();
+        deadRecords = 0;
+        boolean isCorrupted = false;
+
+        if (file.exists()) {
+            try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+                 DataInputStream input = new DataInputStream(counter)) {
+                if (input.readInt() != MAGIC || input.readByte() != FORMAT_VERSION) {
+                    throw new IOException("Unknown speaker file format");
+                }
+
+                while (true) {
+                    long offset = counter.position;
+                    int type = input.read();
+                    if (type == -1) break;
+                    readRecord((byte) type, input, offset, counter);
+                }
+            } catch (EOFException e) {
+                // crashed while writing the last record, everything before it is fine
+                OpenAudioLogger.toConsole("The speaker file ends with an incomplete record, it will be repaired.");
+                isCorrupted = true;
+            } catch (IOException e) {
+                OpenAudioLogger.toConsole("Failed to read the speaker file, keeping a copy as " + file.getName() + ".broken");
+                e.printStackTrace();
+                isCorrupted = true;
+                try {
+                    Files.copy(file.toPath(), new File(file.getParentFile(), file.getName() + ".broken").toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException copyException) {
+                    copyException.printStackTrace();
+                }
+            }
+        }
+
+        openReader();
+        if (isCorrupted || !file.exists() || shouldCompact()) {
+            compact();
+        } else {
+            openWriter();
+        }
+
+        return records.size();
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    public synchronized StoredSpeaker get(UUID id) {
+        RecordPointer record = records.get(id);
+        return record == null ? null : read(record);
+    }
+
+    /**
+     * @return all stored speakers, read from the file in the order they're in there
+     */
+    public synchronized Collection<StoredSpeaker> getAll() {
+        List<RecordPointer> sorted = new ArrayList<>(records.values());
+        sorted.sort(Comparator.comparingLong(record -> record.offset));
+
+        List<StoredSpeaker> speakers = new ArrayList<>(sorted.size());
+        for (RecordPointer record : sorted) {
+            StoredSpeaker speaker = read(record);
+            if (speaker != null) speakers.add(speaker);
+        }
+        return speakers;
+    }
+
+    /**
+     * @param world world name
+     * @param chunkX chunk x
+     * @param chunkZ chunk z
+     * @return speakers that are stored in the given chunk
+     */
+    public synchronized List<StoredSpeaker> getInChunk(String world, int chunkX, int chunkZ) {
+        LongObjectMap<List<RecordPointer>> worldChunks = chunks.get(world);
+        if (worldChunks == null) return Collections.emptyList();
+        List<RecordPointer> chunk = worldChunks.get(MappedLocation.toChunkKey(chunkX, chunkZ));
+        if (chunk == null) return Collections.emptyList();
+
+        List<StoredSpeaker> speakers = new ArrayList<>(chunk.size());
+        for (RecordPointer record : chunk) {
+            StoredSpeaker speaker = read(record);
+            if (speaker != null) speakers.add(speaker);
+        }
+        return speakers;
+    }
+
+    public void save(Speaker speaker) {
+        save(Collections.singletonList(StoredSpeaker.fromSpeaker(speaker)));
+    }
+
+    /**
+     * Store or overwrite speakers, they'll be written by the persistence queue
+     *
+     * @param batch speakers to store
+     */
+    public synchronized void save(Collection<StoredSpeaker> batch) {
+        for (StoredSpeaker speaker : batch) {
+            put(speaker);
+            queue.save(speaker.getId(), speaker);
+        }
+    }
+
+    public void delete(UUID id) {
+        delete(Collections.singletonList(id));
+    }
+
+    /**
+     * Delete speakers, they'll be written by the persistence queue
+     *
+     * @param ids speakers to delete
+     */
+    public synchronized void delete(Collection<UUID> ids) {
+        for (UUID id : ids) {
+            if (remove(id) == null) continue;
+            // the old put is dead, and so is this delete after the next compaction
+            deadRecords += 2;
+            queue.delete(id);
+        }
+    }
+
+    /**
+     * Write all queued changes right away
+     *
+     * @return false if they couldn't be written
+     */
+    public boolean flush() {
+        return queue.flush();
+    }
+
+    /**
+     * Rewrite the log if it's mostly garbage, safe to call from any thread
+     */
+    public void compactIfNeeded() {
+        synchronized (this) {
+            if (!shouldCompact()) return;
+        }
+        compact();
+    }
+
+    public void close() {
+        queue.flush();
+        closeWriter();
+        closeReader();
+    }
+
+    private synchronized void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+
+    private synchronized void closeReader() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        reader = null;
+    }
+
+    private boolean shouldCompact() {
+        return deadRecords > MIN_DEAD_RECORDS && deadRecords > records.size();
+    }
+
+    /**
+     * The store is only locked to take a snapshot of the records and to swap the files, not while the
+     * new file gets written. Whatever got appended to the old file in the meantime is copied over to the end of the new one.
+     */
+    private void compact() {
+        Map<RecordPointer, CompactedRecord> compacted = new LinkedHashMap<>();
+        long snapshotLength;
+        int deadAtSnapshot;
+        synchronized (this) {
+            if (isCompacting) return;
+            isCompacting = true;
+            for (RecordPointer record : records.values()) {
+                compacted.put(record, new CompactedRecord(record.id, record.offset, record.length, record.pending));
+            }
+            snapshotLength = writer == null ? file.length() : writerBase + writer.size();
+            deadAtSnapshot = deadRecords;
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (RandomAccessFile source = file.exists() ? new RandomAccessFile(file, "r") : null;
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(FORMAT_VERSION);
+            for (CompactedRecord record : compacted.values()) {
+                StoredSpeaker speaker = record.pending != null ? record.pending : readFromFile(source, record.id, record.offset, record.length);
+                long offset = output.size();
+                writePut(output, speaker);
+                record.newOffset = offset;
+                record.newLength = (int) (output.size() - offset);
+            }
+        } catch (IOException e) {
+            OpenAudioLogger.toConsole("Failed to compact the speaker file.");
+            e.printStackTrace();
+            temp.delete();
+            synchronized (this) {
+                if (writer == null) openWriter();
+                isCompacting = false;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            closeWriter();
+            closeReader();
+            try {
+                long shift = temp.length() - snapshotLength;
+                if (file.exists()) copyTail(temp, snapshotLength);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                int duplicates = 0;
+                for (RecordPointer record : records.values()) {
+                    CompactedRecord copy = compacted.get(record);
+                    if (copy != null) {
+                        record.offset = copy.newOffset;
+                        record.length = copy.newLength;
+                        // it was still queued, so it's in the new file twice once the queue appended it
+                        if (copy.pending != null) duplicates++;
+                    } else if (record.pending == null && record.offset >= snapshotLength) {
+                        // saved after the snapshot, it's in the copied part now
+                        record.offset += shift;
+                    }
+                }
+                // whatever died before the snapshot is gone, changes made since then are in the copied part
+                deadRecords = deadRecords - deadAtSnapshot + duplicates;
+            } catch (IOException e) {
+                OpenAudioLogger.toConsole("Failed to replace the speaker file with its compacted version.");
+                e.printStackTrace();
+                temp.delete();
+            } finally {
+                openReader();
+                openWriter();
+                isCompacting = false;
+            }
+        }
+    }
+
+    // append everything after the given position of the current file to the target
+    private void copyTail(File target, long from) throws IOException {
+        try (RandomAccessFile source = new RandomAccessFile(file, "r");
+             OutputStream output = new BufferedOutputStream(new FileOutputStream(target, true))) {
+            source.seek(from);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private synchronized void append(Map<UUID, StoredSpeaker> saves, Set<UUID> deletions) throws IOException {
+        if (writer == null) throw new IOException("The speaker file isn't open");
+
+        for (UUID id : deletions) {
+            writer.writeByte(RECORD_DELETE);
+            writeId(writer, id);
+        }
+
+        Map<StoredSpeaker, long[]> written = new IdentityHashMap<>();
+        for (StoredSpeaker speaker : saves.values()) {
+            long offset = writerBase + writer.size();
+            writePut(writer, speaker);
+            written.put(speaker, new long[]{offset, writerBase + writer.size() - offset});
+        }
+        writer.flush();
+
+        // they can be read from the file from now on, unless they got changed again in the meantime
+        written.forEach((speaker, position) -> {
+            RecordPointer record = records.get(speaker.getId());
+            if (record == null || record.pending != speaker) return;
+            record.offset = position[0];
+            record.length = (int) position[1];
+            record.pending = null;
+        });
+    }
+
+    private void put(StoredSpeaker speaker) {
+        RecordPointer record = new RecordPointer(speaker.getId(), worldName(speaker.getLocation().getWorld()), speaker.getLocation().toChunkKey());
+        record.pending = speaker;
+        index(record);
+    }
+
+    private void index(RecordPointer record) {
+        RecordPointer replaced = records.put(record.id, record);
+        if (replaced != null) {
+            deadRecords++;
+            unindex(replaced);
+        }
+
+        chunks.computeIfAbsent(record.world, world -> new LongObjectMap<>())
+                .computeIfAbsent(record.chunkKey, chunk -> new ArrayList<>(1))
+                .add(record);
+    }
+
+    private RecordPointer remove(UUID id) {
+        RecordPointer removed = records.remove(id);
+        if (removed != null) unindex(removed);
+        return removed;
+    }
+
+    private void unindex(RecordPointer record) {
+        LongObjectMap<List<RecordPointer>> worldChunks = chunks.get(record.world);
+        if (worldChunks == null) return;
+
+        List<RecordPointer> chunk = worldChunks.get(record.chunkKey);
+        if (chunk == null) return;
+        chunk.remove(record);
+        if (chunk.isEmpty()) worldChunks.remove(record.chunkKey);
+        if (worldChunks.isEmpty()) chunks.remove(record.world);
+    }
+
+    private String worldName(String world) {
+        return worldNames.computeIfAbsent(world, name -> name);
+    }
+
+    private void openWriter() {
+        try {
+            writerBase = file.length();
+            writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        } catch (IOException e) {
+            OpenAudioLogger.toConsole("Failed to open the speaker file for writing.");
+            e.printStackTrace();
+        }
+    }
+
+    private void openReader() {
+        if (!file.exists()) return;
+        try {
+            reader = new RandomAccessFile(file, "r");
+        } catch (IOException e) {
+            OpenAudioLogger.toConsole("Failed to open the speaker file for reading.");
+            e.printStackTrace();
+        }
+    }
+
+    private StoredSpeaker read(RecordPointer record) {
+        if (record.pending != null) return record.pending;
+        try {
+            return readFromFile(record);
+        } catch (IOException e) {
+            OpenAudioLogger.toConsole("Failed to read speaker " + record.id + " from the speaker file.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private StoredSpeaker readFromFile(RecordPointer record) throws IOException {
+        return readFromFile(reader, record.id, record.offset, record.length);
+    }
+
+    private StoredSpeaker readFromFile(RandomAccessFile source, UUID id, long offset, int length) throws IOException {
+        if (source == null) throw new IOException("The speaker file isn't open");
+        byte[] data = new byte[length];
+        source.seek(offset);
+        source.readFully(data);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        if (input.readByte() != RECORD_PUT) throw new IOException("Speaker " + id + " doesn't point to a speaker record");
+        return readPut(input);
+    }
+
+    private void readRecord(byte type, DataInputStream input, long offset, CountingInputStream counter) throws IOException {
+        switch (type) {
+            case RECORD_PUT:
+                StoredSpeaker speaker = readPut(input);
+                RecordPointer record = new RecordPointer(speaker.getId(), worldName(speaker.getLocation().getWorld()), speaker.getLocation().toChunkKey());
+                record.offset = offset;
+                record.length = (int) (counter.position - offset);
+                index(record);
+                break;
+            case RECORD_DELETE:
+                remove(readId(input));
+                deadRecords += 2;
+                break;
+            default:
+                throw new IOException("Unknown speaker record type " + type);
+        }
+    }
+
+    private StoredSpeaker readPut(DataInputStream input) throws IOException {
+        UUID id = readId(input);
+        String world = input.readUTF();
+        int x = input.readInt();
+        int y = input.readInt();
+        int z = input.readInt();
+        int radius = input.readInt();
+        String source = input.readUTF();
+        String typeName = input.readUTF();
+
+        Set<ExtraSpeakerOptions> options = new HashSet<>();
+        int optionCount = input.readUnsignedByte();
+        for (int i = 0; i < optionCount; i++) {
+            String option = input.readUTF();
+            try {
+                options.add(ExtraSpeakerOptions.valueOf(option));
+            } catch (IllegalArgumentException ignored) {
+                // option got removed in an update
+            }
+        }
+
+        SpeakerType type;
+        try {
+            type = SpeakerType.valueOf(typeName);
+        } catch (IllegalArgumentException e) {
+            type = SpeakerModule.DEFAULT_SPEAKER_TYPE;
+        }
+
+        return new StoredSpeaker(id, new MappedLocation(x, y, z, world), radius, source, type, options);
+    }
+
+    private void writePut(DataOutputStream output, StoredSpeaker speaker) throws IOException {
+        output.writeByte(RECORD_PUT);
+        writeId(output, speaker.getId());
+        output.writeUTF(speaker.getLocation().getWorld());
+        output.writeInt(speaker.getLocation().getX());
+        output.writeInt(speaker.getLocation().getY());
+        output.writeInt(speaker.getLocation().getZ());
+        output.writeInt(speaker.getRadius());
+        output.writeUTF(speaker.getSource());
+        output.writeUTF(speaker.getType().name());
+        output.writeByte(speaker.getOptions().size());
+        for (ExtraSpeakerOptions option : speaker.getOptions()) {
+            output.writeUTF(option.name());
+        }
+    }
+
+    private static UUID readId(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    private static void writeId(DataOutputStream output, UUID id) throws IOException {
+        output.writeLong(id.getMostSignificantBits());
+        output.writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Where the latest record of a speaker is in the file, or the speaker itself while it's waiting to be written
+     */
+    private static final class RecordPointer {
+
+        private final UUID id;
+        private final String world;
+        private final long chunkKey;
+        private long offset = -1;
+        private int length = 0;
+        private StoredSpeaker pending;
+
+        private RecordPointer(UUID id, String world, long chunkKey) {
+            this.id = id;
+            this.world = world;
+            this.chunkKey = chunkKey;
+        }
+
+    }
+
+    /**
+     * A record as it was when a compaction started, and where it ended up in the compacted file
+     */
+    private static final class CompactedRecord {
+
+        private final UUID id;
+        private final long offset;
+        private final int length;
+        private final StoredSpeaker pending;
+        private long newOffset;
+        private int newLength;
+
+        private CompactedRecord(UUID id, long offset, int length, StoredSpeaker pending) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+            this.pending = pending;
+        }
+
+    }
+
+    // keeps track of how far the log has been read, so records know where they start
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long position = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            position += skipped;
+            return skipped;
+        }
+
+    }
+
+}
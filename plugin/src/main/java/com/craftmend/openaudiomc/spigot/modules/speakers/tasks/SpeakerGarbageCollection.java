@@ -4,117 +4,104 @@ import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.storage.enums.GcStrategy;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
-import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerModule;
-import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
 import com.craftmend.openaudiomc.spigot.modules.speakers.utils.SpeakerUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.Chunk;
+import org.bukkit.World;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.*;
 
-public class SpeakerGarbageCollection extends BukkitRunnable {
+/**
+ * Validates speakers when the chunk they're in gets loaded, instead of sweeping over all speakers.
+ * Speakers without a skull (or jukebox) get collected and removed in batches, so a burst of
+ * chunk loads only results in a single write of the data file.
+ */
+public class SpeakerGarbageCollection {
+
+    // wait a second before removing garbage, chunks tend to load in bursts
+    private static final int FLUSH_DELAY = 20;
 
     private final SpeakerModule speakerModule;
-    private final Set<MappedLocation> garbageSpeakers = new HashSet<>();
-    private int lastFraction = 0;
-    private final int FRACTION_GROUP_SIZE = 50;
-    private int logInterval = -1;
-    private int toReport = 0;
-    private boolean forceRun = false;
+    private final Set<Speaker> garbageSpeakers = new LinkedHashSet<>();
+    private boolean isFlushScheduled = false;
 
     public SpeakerGarbageCollection(SpeakerModule speakerModule) {
         this.speakerModule = speakerModule;
-        runTaskTimer(OpenAudioMcSpigot.getInstance(), 600, 600);
     }
 
-    public SpeakerGarbageCollection() {
-        this.forceRun = true;
-        this.speakerModule = OpenAudioMcSpigot.getInstance().getSpeakerModule();
-    }
+    /**
+     * Validate the speakers in a chunk that just got loaded
+     *
+     * @param chunk the chunk
+     */
+    public void validateChunk(Chunk chunk) {
+        boolean foundGarbage = false;
+        for (Speaker speaker : speakerModule.getSpeakersInChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ())) {
+            if (!validate(speaker)) foundGarbage = true;
+        }
 
-    @Override
-    public void run() {
-        int maxFractions = forceRun ? 999999999 : roundUp(this.speakerModule.getSpeakerMap().values().size(), FRACTION_GROUP_SIZE);
-        if (!garbageSpeakers.isEmpty()) {
-
-            toReport += garbageSpeakers.size();
-            logInterval++;
-            if (logInterval > 20 && toReport > 0) {
-                OpenAudioLogger.toConsole("Found " + toReport + " corrupted speakers with the garbage collector. Removing them from the cache until the server restarts (pass " + lastFraction + " out of " + maxFractions + "))");
-                toReport = 0;
-                logInterval = 0;
-            }
+        if (foundGarbage && !isFlushScheduled) {
+            isFlushScheduled = true;
+            OpenAudioMc.getInstance().getTaskProvider().schduleSyncDelayedTask(this::flush, FLUSH_DELAY);
+        }
+    }
 
-            Bukkit.getScheduler().runTask(OpenAudioMcSpigot.getInstance(), () -> {
-                for (MappedLocation garbageSpeaker : garbageSpeakers) {
-                    speakerModule.getSpeakerMap().remove(garbageSpeaker);
-                }
-            });
-
-            GcStrategy strategy = GcStrategy.valueOf(StorageKey.SETTINGS_GC_STRATEGY.getString());
-            if (strategy == GcStrategy.DELETE) {
-                OpenAudioMc openAudioMc = OpenAudioMc.getInstance();
-                for (MappedLocation garbageSpeaker : garbageSpeakers) {
-                    Speaker speaker = this.speakerModule.getSpeaker(garbageSpeaker);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".type", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".radius", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".world", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".x", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".y", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".z", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString() + ".media", null);
-                    openAudioMc.getConfiguration().setString(StorageLocation.DATA_FILE, "speakers." + speaker.getId().toString(), null);
-                }
-                openAudioMc.getConfiguration().saveAll();
+    /**
+     * Validate all speakers that are in loaded chunks, used for chunks that were loaded before we were listening
+     */
+    public void validateLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                validateChunk(chunk);
             }
         }
-        garbageSpeakers.clear();
+    }
 
-        // fraction logic to break computing into smaller parts
-        int fractionStart = lastFraction * FRACTION_GROUP_SIZE;
+    /**
+     * Forcefully validate everything that's loaded and remove the garbage right away
+     */
+    public void runFullSweep() {
+        validateLoadedChunks();
+        flush();
+    }
 
-        lastFraction++;
-        if (maxFractions > lastFraction) {
-            lastFraction = 0;
+    private boolean validate(Speaker speaker) {
+        if (speaker.isValidated()) return true;
+
+        if (SpeakerUtils.isSpeakerSkull(speaker.getLocation().getBlock())) {
+            speaker.setValidated(true);
+            return true;
         }
 
-        int setSize = this.speakerModule.getSpeakerMap().values().size();
-        possiblyFilterLimits(setSize,
-                this.speakerModule.getSpeakerMap().values().stream()
-                        .filter(speaker -> !speaker.isValidated())
-                        .skip(fractionStart)
-        ).collect(Collectors.toList())
-                .forEach(speaker -> {
-                    MappedLocation mappedLocation = speaker.getLocation();
-
-                    // check if the chunk is loaded, if not, don't do shit lmao
-                    Location bukkitLocation = mappedLocation.toBukkit();
-                    if (bukkitLocation.getChunk().isLoaded()) {
-                        if (!SpeakerUtils.isSpeakerSkull(speaker.getLocation().getBlock())) {
-                            garbageSpeakers.add(mappedLocation);
-                        } else {
-                            speaker.setValidated(true);
-                        }
-                    }
-                });
+        garbageSpeakers.add(speaker);
+        return false;
     }
 
-    private Stream<Speaker> possiblyFilterLimits(int size, Stream<Speaker> stream) {
-        if (size > 250) {
-            return stream.limit(FRACTION_GROUP_SIZE);
+    private void flush() {
+        isFlushScheduled = false;
+        if (garbageSpeakers.isEmpty()) return;
+
+        List<UUID> ids = new ArrayList<>();
+        for (Speaker speaker : garbageSpeakers) {
+            // a new speaker could have been placed at the same block since it got validated
+            Speaker listed = speakerModule.getSpeaker(speaker.getLocation());
+            if (listed == null || !listed.getId().equals(speaker.getId())) continue;
+
+            speakerModule.unlistSpeaker(speaker.getLocation());
+            ids.add(speaker.getId());
         }
-        return stream;
-    }
+        garbageSpeakers.clear();
+        if (ids.isEmpty()) return;
+
+        OpenAudioLogger.toConsole("Found " + ids.size() + " corrupted speakers with the garbage collector. Removing them from the cache until the server restarts");
 
-    public int roundUp(long num, long divisor) {
-        int sign = (num > 0 ? 1 : -1) * (divisor > 0 ? 1 : -1);
-        return (int) (sign * (Math.abs(num) + Math.abs(divisor) - 1) / Math.abs(divisor));
+        GcStrategy strategy = GcStrategy.valueOf(StorageKey.SETTINGS_GC_STRATEGY.getString());
+        if (strategy == GcStrategy.DELETE) {
+            // one write for the whole batch
+            speakerModule.getSpeakerStore().delete(ids);
+        }
     }
+
 }
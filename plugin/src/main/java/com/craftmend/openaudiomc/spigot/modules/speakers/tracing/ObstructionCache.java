@@ -0,0 +1,148 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.tracing;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ObstructionKey;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+import lombok.AllArgsConstructor;
+import org.bukkit.Location;
+
+import java.util.*;
+
+/**
+ * LRU cache of obstruction counts, keyed by speaker and the block the player is standing in.
+ * Players tend to walk in and out of the same speakers, so most traces can be skipped entirely.
+ *
+ * Every entry remembers the chunk cells its ray crossed, so a block change only has to
+ * drop the entries that could actually have been affected by it.
+ */
+public class ObstructionCache {
+
+    private static final int MAX_ENTRIES = 8192;
+
+    private final Map<ObstructionKey, CachedTrace> cache = new LinkedHashMap<ObstructionKey, CachedTrace>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ObstructionKey, CachedTrace> eldest) {
+            if (size() <= MAX_ENTRIES) return false;
+            unindex(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+
+    // cells that were invalidated, kept bounded by forgetting all of them at once
+    private static final int MAX_INVALIDATED_CELLS = 4096;
+
+    // reverse lookup, which cached traces crossed a given chunk cell
+    private final Map<Long, Set<ObstructionKey>> keysByCell = new HashMap<>();
+
+    // bumped on every invalidation, so traces that captured their blocks before it can't store outdated results
+    private long generation = 0;
+    private final Map<Long, Long> invalidatedCells = new HashMap<>();
+    // generation at which invalidatedCells was last emptied, anything older than it gets dropped
+    private long forgottenBefore = 0;
+
+    /**
+     * @param speaker the speaker that is being listened to
+     * @param listener the location of the listener
+     * @return the cached amount of obstructions, or -1 if it still has to be traced
+     */
+    public synchronized int getCached(Speaker speaker, Location listener) {
+        CachedTrace cached = cache.get(new ObstructionKey(
+                speaker.getId(),
+                MappedLocation.toBlockKey(listener.getBlockX(), listener.getBlockY(), listener.getBlockZ())
+        ));
+        return cached == null ? -1 : cached.obstructions;
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(Speaker, long, long[], int, long)} once the trace is done
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @param speaker the speaker that was traced
+     * @param listenerBlock packed block position of the listener
+     * @param cells chunk cells the ray crossed, see {@link #cellKey(int, int)}
+     * @param obstructions the result
+     * @param generation generation from when the blocks were captured
+     */
+    public synchronized void put(Speaker speaker, long listenerBlock, long[] cells, int obstructions, long generation) {
+        // blocks changed after the capture, the result might already be wrong
+        if (generation < forgottenBefore) return;
+        for (long cell : cells) {
+            Long invalidatedAt = invalidatedCells.get(cell);
+            if (invalidatedAt != null && invalidatedAt > generation) return;
+        }
+
+        ObstructionKey key = new ObstructionKey(speaker.getId(), listenerBlock);
+        CachedTrace trace = new CachedTrace(speaker, cells, obstructions);
+
+        CachedTrace replaced = cache.put(key, trace);
+        if (replaced != null) unindex(key, replaced);
+
+        for (long cell : cells) {
+            keysByCell.computeIfAbsent(cell, c -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Drop all traces that crossed one of the given cells
+     *
+     * @param world the world the cells are in
+     * @param cells changed chunk cells
+     * @return speakers that had at least one trace invalidated
+     */
+    public synchronized Set<Speaker> invalidate(String world, Collection<Long> cells) {
+        Set<Speaker> affected = new HashSet<>();
+
+        generation++;
+        if (invalidatedCells.size() + cells.size() > MAX_INVALIDATED_CELLS) {
+            invalidatedCells.clear();
+            forgottenBefore = generation;
+        }
+
+        for (Long cell : cells) {
+            invalidatedCells.put(cell, generation);
+            Set<ObstructionKey> keys = keysByCell.get(cell);
+            if (keys == null) continue;
+
+            for (ObstructionKey key : new ArrayList<>(keys)) {
+                CachedTrace trace = cache.get(key);
+                if (trace == null || !trace.speaker.getLocation().getWorld().equals(world)) continue;
+
+                cache.remove(key);
+                unindex(key, trace);
+                affected.add(trace.speaker);
+            }
+        }
+
+        return affected;
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        keysByCell.clear();
+    }
+
+    public static long cellKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private void unindex(ObstructionKey key, CachedTrace trace) {
+        for (long cell : trace.cells) {
+            Set<ObstructionKey> keys = keysByCell.get(cell);
+            if (keys == null) continue;
+            keys.remove(key);
+            if (keys.isEmpty()) keysByCell.remove(cell);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedTrace {
+        private final Speaker speaker;
+        private final long[] cells;
+        private final int obstructions;
+    }
+
+}
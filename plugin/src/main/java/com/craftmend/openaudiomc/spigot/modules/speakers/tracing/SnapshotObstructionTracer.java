@@ -0,0 +1,245 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.tracing;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.utils.LongObjectMap;
+import com.craftmend.openaudiomc.spigot.modules.speakers.interfaces.BlockSolidity;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Computes obstructions without touching the world from the async location watchers.
+ *
+ * Requests are queued and handled by a single main thread task, which only captures snapshots of the (loaded)
+ * chunks the rays pass through (every chunk once, no matter how many rays cross it),
+ * the actual traversal happens on a small worker pool. Results are stored in the obstruction cache
+ * and handed to a callback on the worker thread.
+ */
+public class SnapshotObstructionTracer {
+
+    // worlds only go below 0 since 1.17, which is also when this method got added
+    private static final Method GET_MIN_HEIGHT = findMinHeightMethod();
+
+    private final ObstructionCache obstructionCache;
+    private final ServerVersion version;
+    private final ExecutorService workers;
+    private final Queue<TraceRequest> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isDrainScheduled = new AtomicBoolean(false);
+
+    public SnapshotObstructionTracer(ObstructionCache obstructionCache, ServerVersion version) {
+        this.obstructionCache = obstructionCache;
+        this.version = version;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "OpenAudioMc-Obstructions-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Trace the obstructions between a speaker and a listener, asynchronously
+     *
+     * @param speaker the speaker
+     * @param listener location of the listener
+     * @param callback receives the obstruction count, called from a worker thread (or the main thread on legacy servers)
+     */
+    public void trace(Speaker speaker, Location listener, IntConsumer callback) {
+        World world = listener.getWorld();
+        if (world == null) return;
+
+        // copy everything we need, the location might get mutated after this call
+        requests.add(new TraceRequest(speaker, speaker.getLocation(), world, listener.getX(), listener.getY(), listener.getZ(), callback));
+
+        // everything that gets requested before the main thread gets to it is handled by the same task
+        if (isDrainScheduled.compareAndSet(false, true)) {
+            OpenAudioMc.getInstance().getTaskProvider().runSync(this::drain);
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void drain() {
+        isDrainScheduled.set(false);
+        long generation = obstructionCache.getGeneration();
+
+        // chunks get captured once per drain, and are shared by every trace that passes through them
+        Map<World, LongObjectMap<ChunkSnapshot>> snapshots = new HashMap<>();
+        List<TraceRequest> batch = new ArrayList<>();
+
+        TraceRequest request;
+        while ((request = requests.poll()) != null) {
+            World world = request.world;
+            MappedLocation target = request.target;
+            request.cells = collectCells(request.x, request.y, request.z, target);
+            request.minHeight = getMinHeight(world);
+            request.maxHeight = world.getMaxHeight();
+
+            if (version == ServerVersion.LEGACY) {
+                // legacy snapshots don't expose materials, but we're on the main thread now so the world is safe to use
+                int minHeight = request.minHeight;
+                int maxHeight = request.maxHeight;
+                int obstructions = VoxelRayTracer.countObstructions(
+                        request.x, request.y, request.z,
+                        target.getX(), target.getY(), target.getZ(),
+                        (x, y, z) -> y >= minHeight && y < maxHeight && world.isChunkLoaded(x >> 4, z >> 4)
+                                && world.getBlockAt(x, y, z).getType().isSolid()
+                );
+                complete(request, generation, obstructions);
+                continue;
+            }
+
+            request.snapshots = snapshots.computeIfAbsent(world, key -> new LongObjectMap<>());
+            captureSnapshots(world, request.cells, request.snapshots);
+            batch.add(request);
+        }
+
+        // only hand them to the workers once all snapshots are taken, the maps don't change after this
+        try {
+            for (TraceRequest traced : batch) {
+                workers.execute(() -> {
+                    MappedLocation target = traced.target;
+                    int obstructions = VoxelRayTracer.countObstructions(
+                            traced.x, traced.y, traced.z,
+                            target.getX(), target.getY(), target.getZ(),
+                            (x, y, z) -> {
+                                if (y < traced.minHeight || y >= traced.maxHeight) return false;
+                                ChunkSnapshot snapshot = traced.snapshots.get(ObstructionCache.cellKey(x >> 4, z >> 4));
+                                // unloaded chunks count as air
+                                return snapshot != null && snapshot.getBlockType(x & 15, y, z & 15).isSolid();
+                            }
+                    );
+                    complete(traced, generation, obstructions);
+                });
+            }
+        } catch (RejectedExecutionException ignored) {
+            // shutting down
+        }
+    }
+
+    private void captureSnapshots(World world, long[] cells, LongObjectMap<ChunkSnapshot> snapshots) {
+        for (long cell : cells) {
+            if (snapshots.containsKey(cell)) continue;
+            int chunkX = (int) (cell >> 32);
+            int chunkZ = (int) cell;
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                snapshots.put(cell, world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+            }
+        }
+    }
+
+    private long[] collectCells(double startX, double startY, double startZ, MappedLocation target) {
+        CellCollector collector = new CellCollector();
+
+        // walk the ray once without looking at blocks, just to find out which chunks it crosses
+        VoxelRayTracer.countObstructions(
+                startX, startY, startZ,
+                target.getX(), target.getY(), target.getZ(),
+                collector
+        );
+
+        // the speaker block isn't visited by the tracer, but changing it does change the result
+        collector.isSolid(target.getX(), target.getY(), target.getZ());
+        return collector.toArray();
+    }
+
+    private void complete(TraceRequest request, long generation, int obstructions) {
+        long listenerBlock = MappedLocation.toBlockKey(floor(request.x), floor(request.y), floor(request.z));
+        obstructionCache.put(request.speaker, listenerBlock, request.cells, obstructions, generation);
+        try {
+            request.callback.accept(obstructions);
+        } catch (Exception e) {
+            OpenAudioLogger.toConsole("Failed to deliver obstructions for speaker " + request.speaker.getId());
+            e.printStackTrace();
+        }
+    }
+
+    private static Method findMinHeightMethod() {
+        try {
+            return World.class.getMethod("getMinHeight");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static int getMinHeight(World world) {
+        if (GET_MIN_HEIGHT == null) return 0;
+        try {
+            return (int) GET_MIN_HEIGHT.invoke(world);
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+
+    private static int floor(double value) {
+        int floored = (int) value;
+        return value < floored ? floored - 1 : floored;
+    }
+
+    private static class TraceRequest {
+
+        private final Speaker speaker;
+        private final MappedLocation target;
+        private final World world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final IntConsumer callback;
+
+        // filled in on the main thread
+        private long[] cells;
+        private int minHeight;
+        private int maxHeight;
+        private LongObjectMap<ChunkSnapshot> snapshots;
+
+        private TraceRequest(Speaker speaker, MappedLocation target, World world, double x, double y, double z, IntConsumer callback) {
+            this.speaker = speaker;
+            this.target = target;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.callback = callback;
+        }
+    }
+
+    private static class CellCollector implements BlockSolidity {
+
+        private long[] cells = new long[4];
+        private int count = 0;
+
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            long cell = ObstructionCache.cellKey(x >> 4, z >> 4);
+
+            // a ray never re-enters a chunk column it left, so only the previous cell has to be compared
+            if (count > 0 && cells[count - 1] == cell) return false;
+            if (count == cells.length) cells = Arrays.copyOf(cells, count * 2);
+            cells[count++] = cell;
+            return false;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(cells, count);
+        }
+    }
+
+}
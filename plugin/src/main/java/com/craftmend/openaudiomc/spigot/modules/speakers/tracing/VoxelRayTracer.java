@@ -0,0 +1,99 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers.tracing;
+
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.objects.Vector3;
+import com.craftmend.openaudiomc.spigot.modules.speakers.interfaces.BlockSolidity;
+import com.craftmend.openaudiomc.spigot.modules.speakers.interfaces.IRayTracer;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Ray tracer based on the Amanatides & Woo voxel traversal algorithm.
+ * It visits every block the ray passes through exactly once and in order, so the amount of
+ * solid runs (walls) between the two points is actually accurate, unlike the EstimatedRayTracer.
+ */
+public class VoxelRayTracer implements IRayTracer {
+
+    @Override
+    public int obstructionsBetweenLocations(Location start, Vector3 end) {
+        World world = start.getWorld();
+        return countObstructions(
+                start.getX(), start.getY(), start.getZ(),
+                end.getX(), end.getY(), end.getZ(),
+                (x, y, z) -> world.getBlockAt(x, y, z).getType().isSolid()
+        );
+    }
+
+    /**
+     * Count the amount of solid runs between a start position and a target block.
+     * The target block itself (the speaker) is never counted.
+     *
+     * @return the amount of obstructions
+     */
+    public static int countObstructions(double startX, double startY, double startZ,
+                                        double endX, double endY, double endZ,
+                                        BlockSolidity solidity) {
+        int x = floor(startX);
+        int y = floor(startY);
+        int z = floor(startZ);
+        int targetX = floor(endX);
+        int targetY = floor(endY);
+        int targetZ = floor(endZ);
+
+        // aim for the center of the target block
+        double dx = (targetX + 0.5) - startX;
+        double dy = (targetY + 0.5) - startY;
+        double dz = (targetZ + 0.5) - startZ;
+
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        int stepZ = dz > 0 ? 1 : (dz < 0 ? -1 : 0);
+
+        // ray parameter t runs from 0 (start) to 1 (target), these are the t's of the next boundary on every axis
+        double tDeltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dx);
+        double tDeltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dy);
+        double tDeltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dz);
+        double tMaxX = stepX == 0 ? Double.POSITIVE_INFINITY : (stepX > 0 ? (x + 1 - startX) : (startX - x)) * tDeltaX;
+        double tMaxY = stepY == 0 ? Double.POSITIVE_INFINITY : (stepY > 0 ? (y + 1 - startY) : (startY - y)) * tDeltaY;
+        double tMaxZ = stepZ == 0 ? Double.POSITIVE_INFINITY : (stepZ > 0 ? (z + 1 - startZ) : (startZ - z)) * tDeltaZ;
+
+        // the ray can never visit more blocks than the manhattan distance, guards against float drift
+        int remainingSteps = Math.abs(targetX - x) + Math.abs(targetY - y) + Math.abs(targetZ - z);
+
+        boolean wasLastSolid = false;
+        int obstructions = 0;
+
+        while (remainingSteps-- >= 0 && !(x == targetX && y == targetY && z == targetZ)) {
+            boolean isSolid = solidity.isSolid(x, y, z);
+            if (isSolid && !wasLastSolid) {
+                obstructions++;
+            }
+            wasLastSolid = isSolid;
+
+            if (tMaxX < tMaxY) {
+                if (tMaxX < tMaxZ) {
+                    x += stepX;
+                    tMaxX += tDeltaX;
+                } else {
+                    z += stepZ;
+                    tMaxZ += tDeltaZ;
+                }
+            } else {
+                if (tMaxY < tMaxZ) {
+                    y += stepY;
+                    tMaxY += tDeltaY;
+                } else {
+                    z += stepZ;
+                    tMaxZ += tDeltaZ;
+                }
+            }
+        }
+
+        return obstructions;
+    }
+
+    private static int floor(double value) {
+        int floored = (int) value;
+        return value < floored ? floored - 1 : floored;
+    }
+
+}
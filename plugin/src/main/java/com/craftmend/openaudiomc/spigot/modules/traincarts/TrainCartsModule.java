@@ -5,6 +5,9 @@ import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.events.SignActionEvent;
 import com.bergerkiller.bukkit.tc.signactions.SignAction;
 import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.media.objects.Media;
+import com.craftmend.openaudiomc.generic.networking.client.objects.player.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientCreateMedia;
 import com.craftmend.openaudiomc.generic.networking.packets.client.media.PacketClientDestroyMedia;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
@@ -14,7 +17,9 @@ import com.craftmend.openaudiomc.spigot.modules.traincarts.signs.AudioSign;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class TrainCartsModule {
@@ -39,13 +44,15 @@ public class TrainCartsModule {
         if (media == null) return;
 
         if (!event.getGroup().isEmpty()) {
+            List<ClientConnection> clients = new ArrayList<>();
             MinecartGroup member = event.getGroup();
             for (MinecartMember<?> minecartMember : member) {
                 for (Player playerPassenger : minecartMember.getEntity().getPlayerPassengers()) {
                     SpigotConnection spigotConnection = OpenAudioMcSpigot.getInstance().getPlayerModule().getClient(playerPassenger);
-                    OpenAudioMc.getInstance().getNetworkingService().send(spigotConnection.getClientConnection(), new PacketClientDestroyMedia(media.getMediaId().toString()));
+                    clients.add(spigotConnection.getClientConnection());
                 }
             }
+            OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientDestroyMedia(media.getMediaId().toString()));
         }
 
         trainMediaMap.remove(trainName);
@@ -61,13 +68,16 @@ public class TrainCartsModule {
         trainMediaMap.put(trainName, media);
 
         if (!event.getGroup().isEmpty()) {
+            Media trainMedia = media.toMedia();
+            List<ClientConnection> clients = new ArrayList<>();
             MinecartGroup member = event.getGroup();
             for (MinecartMember<?> minecartMember : member) {
                 for (Player playerPassenger : minecartMember.getEntity().getPlayerPassengers()) {
                     SpigotConnection spigotConnection = OpenAudioMcSpigot.getInstance().getPlayerModule().getClient(playerPassenger);
-                    spigotConnection.getClientConnection().sendMedia(media.toMedia());
+                    if (spigotConnection.getClientConnection().prepareMedia(trainMedia)) clients.add(spigotConnection.getClientConnection());
                 }
             }
+            OpenAudioMc.getInstance().getNetworkingService().broadcast(clients, new PacketClientCreateMedia(trainMedia));
         }
     }
 
@@ -5,12 +5,12 @@ import com.craftmend.openaudiomc.generic.networking.client.objects.player.Client
 import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientDropVoiceStream;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceDropPayload;
 import com.craftmend.openaudiomc.generic.platform.Platform;
-import com.craftmend.openaudiomc.generic.player.SpigotPlayerAdapter;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.players.ticking.PlayerSnapshot;
 import lombok.AllArgsConstructor;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -22,23 +22,28 @@ public class PlayerProximityTicker implements Runnable {
 
     @Override
     public void run() {
-        for (ClientConnection client : OpenAudioMc.getInstance().getNetworkingService().getClients()) {
+        // positions from the main thread, instead of asking every player for every other player
+        PlayerSnapshot snapshot = OpenAudioMcSpigot.getInstance().getPlayerModule().getTickScheduler().getSnapshot();
+        double maxDistanceSquared = (double) maxDistance * maxDistance;
+
+        for (int slot = 0; slot < snapshot.size(); slot++) {
+            ClientConnection client = snapshot.getConnection(slot).getClientConnection();
+
             // am I valid? no? do nothing.
             if (!client.getClientRtcManager().isReady()) continue;
 
-            Player player = ((SpigotPlayerAdapter) client.getPlayer()).getPlayer();
-
             // find clients in this world, in radius and that are connected with RTC
-            Set<ClientConnection> applicableClients = Bukkit.getOnlinePlayers()
-                    .stream()
-                    .filter(p -> !p.getName().equals(client.getOwnerName()))
-                    .filter(onlinePlayer -> !onlinePlayer.isDead())
-                    .filter(possiblePeer -> !player.isDead())
-                    .filter(onlinePlayer -> onlinePlayer.getWorld().getName().equals(player.getWorld().getName()))
-                    .filter(onlinePlayer -> onlinePlayer.getLocation().distance(player.getLocation()) < maxDistance)
-                    .map(onlinePlayer -> OpenAudioMc.getInstance().getNetworkingService().getClient(onlinePlayer.getUniqueId()))
-                    .filter(cc -> cc.getClientRtcManager().isReady())
-                    .collect(Collectors.toSet());
+            Set<ClientConnection> applicableClients = new HashSet<>();
+            if (!snapshot.isDead(slot)) {
+                for (int other = 0; other < snapshot.size(); other++) {
+                    if (other == slot || snapshot.isDead(other)) continue;
+                    if (snapshot.getWorld(other) != snapshot.getWorld(slot)) continue;
+                    if (snapshot.distanceSquared(slot, other) >= maxDistanceSquared) continue;
+
+                    ClientConnection peer = snapshot.getConnection(other).getClientConnection();
+                    if (peer.getClientRtcManager().isReady()) applicableClients.add(peer);
+                }
+            }
 
             // find players that we don't have yet
             applicableClients
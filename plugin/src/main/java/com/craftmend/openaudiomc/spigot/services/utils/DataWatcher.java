@@ -13,27 +13,40 @@ public class DataWatcher<T> {
     private final int task;
     private Feeder<T> dataFeeder;
     @Getter private Consumer<T> callback;
-    private boolean isRunning;
-    private boolean forced = false;
+    private volatile boolean isRunning;
+    private volatile boolean forced = false;
 
     public DataWatcher(JavaPlugin plugin, boolean sync, int delayTicks) {
-        Runnable executor = () -> {
-            if (this.dataFeeder == null) return;
-            T newValue = dataFeeder.feed();
-            if (forced || (this.value != null && !newValue.equals(this.value))) this.callback.accept(newValue);
-            this.value = newValue;
-            forced = false;
-        };
-
         if (sync) {
-            this.task = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, executor, delayTicks, delayTicks);
+            this.task = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::tick, delayTicks, delayTicks);
         } else {
-            this.task = Bukkit.getScheduler().scheduleAsyncRepeatingTask(plugin, executor, delayTicks, delayTicks);
+            this.task = Bukkit.getScheduler().scheduleAsyncRepeatingTask(plugin, this::tick, delayTicks, delayTicks);
         }
 
         isRunning = true;
     }
 
+    /**
+     * A watcher without its own task, something else has to call {@link #tick()}
+     */
+    public DataWatcher() {
+        this.task = -1;
+        isRunning = true;
+    }
+
+    /**
+     * Feed a new value, and fire the callback if it changed (or if a tick got forced)
+     */
+    public void tick() {
+        if (!isRunning || this.dataFeeder == null) return;
+        T newValue = dataFeeder.feed();
+        // nothing to watch yet, try again next tick
+        if (newValue == null) return;
+        if (forced || (this.value != null && !newValue.equals(this.value))) this.callback.accept(newValue);
+        this.value = newValue;
+        forced = false;
+    }
+
     public DataWatcher<T> setFeeder(Feeder<T> feeder) {
         this.dataFeeder = feeder;
         return this;
@@ -53,7 +66,7 @@ public class DataWatcher<T> {
     }
 
     public void stop() {
-        Bukkit.getScheduler().cancelTask(this.task);
+        if (this.task != -1) Bukkit.getScheduler().cancelTask(this.task);
         this.isRunning = false;
     }
 